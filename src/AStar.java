@@ -0,0 +1,94 @@
+import java.util.*;
+
+// A* ponto a ponto com potencial de landmarks (ALT) sobre o peso wCost * custo + wRes * recurso.
+// O potencial é consistente (combinação com pesos >= 0 de potenciais ALT), então cada nó é fixado
+// uma vez e o caminho devolvido é mínimo, como no Dijkstra, mas a busca anda na direção do destino
+// e fixa só uma fração dos nós. Nós que os landmarks provam não alcançar o destino nem entram no heap.
+// Buffers reaproveitados entre chamadas (marcação por época), como no Dijkstra.
+public class AStar {
+    final Graph g;
+    final Landmarks landmarks;
+    private final double[] dist;
+    private final double[] potential; // limite de v até t, calculado na primeira vez que v é visto
+    private final int[] pred;
+    private final int[] stamp;        // == epoch: dist/potential/pred valem nesta busca
+    private final int[] settled;      // == epoch: distância final
+    private int epoch = 0;
+    private final MinHeap heap = new MinHeap(1024);
+
+    public int settledCount = 0;
+
+    public AStar(Graph g) {
+        this(g, g.landmarks());
+    }
+
+    public AStar(Graph g, Landmarks landmarks) {
+        this.g = g.build();
+        this.landmarks = landmarks;
+        dist = new double[g.n];
+        potential = new double[g.n];
+        pred = new int[g.n];
+        stamp = new int[g.n];
+        settled = new int[g.n];
+    }
+
+    // Distância s -> t pelo peso combinado (+infinito se inalcançável).
+    public double run(int s, int t, double wCost, double wRes) {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            Arrays.fill(settled, 0);
+            epoch = 1;
+        }
+        settledCount = 0;
+        heap.clear();
+        stamp[s] = epoch;
+        dist[s] = 0;
+        pred[s] = -1;
+        potential[s] = landmarks.lowerBound(s, t, wCost, wRes);
+        if (potential[s] == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+        heap.push(s, potential[s]);
+
+        while (!heap.isEmpty()) {
+            int u = heap.pop();
+            if (settled[u] == epoch) continue; // entrada obsoleta
+            settled[u] = epoch;
+            settledCount++;
+            double d = dist[u];
+            if (u == t) return d;
+
+            for (int a = g.offsets[u]; a < g.offsets[u + 1]; a++) {
+                int v = g.targets[a];
+                double nd = d + wCost * g.cost[a] + wRes * g.resource[a];
+                if (stamp[v] != epoch) {
+                    stamp[v] = epoch;
+                    potential[v] = landmarks.lowerBound(v, t, wCost, wRes);
+                } else if (nd >= dist[v]) {
+                    continue;
+                }
+                if (potential[v] == Double.POSITIVE_INFINITY) continue;
+                dist[v] = nd;
+                pred[v] = u;
+                heap.push(v, nd + potential[v]);
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    public double distance(int v) {
+        return settled[v] == epoch ? dist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    // Escreve em 'out' o caminho da última execução até t; false se t não foi alcançado.
+    public boolean pathTo(int t, Solution out) {
+        out.clear();
+        if (settled[t] != epoch) return false;
+        for (int v = t; v >= 0; v = pred[v]) out.add(v);
+        // Foi montado de trás para frente
+        for (int i = 0, j = out.size() - 1; i < j; i++, j--) {
+            int tmp = out.path[i];
+            out.path[i] = out.path[j];
+            out.path[j] = tmp;
+        }
+        return true;
+    }
+}
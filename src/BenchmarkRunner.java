@@ -1,70 +1,98 @@
-import java.io.File;
-import java.util.Scanner;
-
-public class BenchmarkRunner {
-    public static void main(String[] args) throws Exception {
-        String[] files = {
-            "instances/inst_pequena.txt",
-            "instances/inst_media.txt",
-            "instances/inst_grande.txt",
-            "instances/inst_muito_grande.txt"
-        };
-
-        System.out.println("===================================================================================");
-        System.out.printf("%-20s | %-10s | %-10s | %-10s | %-10s%n", 
-                          "Instância", "Nós", "Custo", "Recurso", "Tempo(ms)");
-        System.out.println("===================================================================================");
-
-        for (String filePath : files) {
-            runTest(filePath);
-        }
-    }
-
-    public static void runTest(String filePath) {
-        try {
-            File f = new File(filePath);
-            if (!f.exists()) {
-                System.out.println("Arquivo não encontrado: " + filePath);
-                return;
-            }
-            Scanner sc = new Scanner(f);
-
-            int n = sc.nextInt();
-            int m = sc.nextInt();
-            int source = sc.nextInt();
-            int target = sc.nextInt();
-            double R = sc.nextDouble();
-
-            Graph g = new Graph(n);
-            for (int i = 0; i < m; i++) {
-                if (sc.hasNextInt()) {
-                    int u = sc.nextInt();
-                    int v = sc.nextInt();
-                    double cost = sc.nextDouble();
-                    double resource = sc.nextDouble();
-                    g.addEdge(u, v, cost, resource);
-                }
-            }
-            sc.close();
-
-            long start = System.currentTimeMillis();
-            
-            // Setup do Simulated Annealing
-            // Extrair parâmetros (Temp, Cooling) para config externa se for rodar bateria de testes.
-            SimulatedAnnealing sa = new SimulatedAnnealing(g, source, target, R);
-            Solution best = sa.run();
-            
-            long end = System.currentTimeMillis();
-
-            System.out.printf("%-20s | %-10d | %-10.2f | %-10.2f | %-10d%n", 
-                              f.getName(), 
-                              n, 
-                              best.cost, 
-                              best.resource, 
-                              (end - start)); // Wall-clock time ignorando I/O
-
-        } catch (Exception e) {
-            System.out.println("Erro ao processar " + filePath + ": " + e.getMessage());
-        }
-    }
+import java.io.File;
+
+public class BenchmarkRunner {
+    // Solver avaliado na coluna Custo (Solver.byName); as referências são sempre "exact" e "lagrangian".
+    static String solverName = "sa";
+    static boolean bidirectional = false;
+    // Estratégia de resfriamento do SA (CoolingSchedule.byName); null = padrão do SimulatedAnnealing.
+    static String coolingName;
+    // --metricas: imprime o JSON de SolverMetrics de cada execução do solver depois da tabela
+    static boolean printMetrics = false;
+    static final java.util.List<String> metricsJson = new java.util.ArrayList<>();
+
+    static long seed;
+
+    // Uso: java BenchmarkRunner [geometrico|lundy-mees|adaptativo|reaquecimento] [--solver=NOME] [--metricas] [--bidirecional] [--seed=N]
+    public static void main(String[] args) throws Exception {
+        for (String arg : args) {
+            if (arg.equals("--metricas")) printMetrics = true;
+            else if (arg.startsWith("--solver=")) solverName = arg.substring("--solver=".length());
+            else if (arg.equals("--bidirecional")) bidirectional = true;
+            else if (!arg.startsWith("--")) coolingName = arg;
+        }
+        seed = Seeds.fromArgs(args);
+
+        String[] files = {
+            "instances/inst_pequena.txt",
+            "instances/inst_media.txt",
+            "instances/inst_grande.txt",
+            "instances/inst_muito_grande.txt"
+        };
+
+        System.out.println("Semente: " + seed);
+        System.out.println("===================================================================================");
+        System.out.printf("%-20s | %-10s | %-10s | %-10s | %-10s | %-10s | %-8s | %-10s | %-8s%n", 
+                          "Instância", "Nós", "Custo", "Recurso", "Tempo(ms)", "Ótimo", "GAP(%)",
+                          "LB(Lagr)", "GAP-LB(%)");
+        System.out.println("===================================================================================");
+
+        for (String filePath : files) {
+            runTest(filePath);
+        }
+        if (printMetrics) {
+            for (String json : metricsJson) System.out.println(json);
+        }
+    }
+
+    public static void runTest(String filePath) {
+        try {
+            File f = new File(filePath);
+            if (!f.exists()) {
+                System.out.println("Arquivo não encontrado: " + filePath);
+                return;
+            }
+            Instance inst = InstanceLoader.load(filePath);
+            int n = inst.graph.n;
+
+            // Heurística avaliada (T0 calibrado pela instância no SA)
+            Solver.Options options = new Solver.Options();
+            options.seed = Seeds.derive(seed, "sa:" + f.getName());
+            options.cooling = coolingName;
+            options.bidirectional = bidirectional;
+            options.label = f.getName();
+            Solver.Result run = Solver.byName(solverName, options).solve(inst);
+            Solution best = run.best;
+            // GAPs só fazem sentido para uma heurística que chegou ao destino dentro dos limites
+            boolean bestFeasible = run.feasible(inst);
+            if (run.metrics != null) metricsJson.add(run.metrics.toJson());
+
+            // Referência exata (label-setting) para medir o GAP contra o ótimo, não contra a solução inicial.
+            Solver.Result exact = Solver.byName("exact", options).solve(inst);
+            Solution opt = exact.best;
+            String optCost = (exact.optimal && opt.reachesTarget) ? String.format("%.2f", opt.cost) : "-";
+            String gap = (bestFeasible && exact.optimal && opt.reachesTarget && opt.cost > 0)
+                    ? String.format("%.2f", (best.cost - opt.cost) / opt.cost * 100.0) : "-";
+
+            // Limite inferior Lagrangiano: dispensa o exato e serve mesmo em grafos enormes.
+            Solver.Result lagr = Solver.byName("lagrangian", options).solve(inst);
+            boolean lagrFeasible = lagr.feasible(inst);
+            String lb = lagrFeasible ? String.format("%.2f", lagr.lowerBound) : "-";
+            String gapLb = (bestFeasible && lagrFeasible && best.cost > 0)
+                    ? String.format("%.2f", (best.cost - lagr.lowerBound) / best.cost * 100.0) : "-";
+
+            System.out.printf("%-20s | %-10d | %-10.2f | %-10.2f | %-10d | %-10s | %-8s | %-10s | %-8s%n", 
+                              f.getName(), 
+                              n, 
+                              best.cost, 
+                              best.resource, 
+                              run.timeMs, // Wall-clock time ignorando I/O
+                              optCost,
+                              gap,
+                              lb,
+                              gapLb);
+
+        } catch (Exception e) {
+            System.out.println("Erro ao processar " + filePath + ": " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
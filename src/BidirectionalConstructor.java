@@ -0,0 +1,160 @@
+import java.util.*;
+
+// Construção aleatória bidirecional de caminhos: uma DFS aleatória cresce da origem pelos arcos do
+// grafo e outra do destino pelos arcos do reverso (Graph.reverse), um passo de cada por vez; quando
+// um lado pisa num nó que está na pilha do outro, os dois trechos se juntam ali. Em grafos grandes
+// as duas pontas se encontram muito antes de uma busca só de ida esbarrar no destino.
+// Com landmarks (ALT) cada passo puxa para o outro lado (peso pelo custo reduzido do potencial, como
+// no modo guiado do SA) e nós que comprovadamente não chegam ao destino (ou não vêm da origem) são
+// podados. Como na RandomDfs, nó que esgotou seus arcos continua marcado no seu lado, então cada
+// lado empilha cada nó no máximo uma vez e, sem limite de recuos, acha um caminho se ele existir.
+public class BidirectionalConstructor {
+    final Graph g, rg;
+    final Landmarks landmarks;   // null = sem direção nem poda
+    SplittableRandom rand;       // o SA troca a cada uso (ver SimulatedAnnealing.bidirectional)
+    boolean guided = true;       // pesos pelo potencial (só com landmarks)
+    double R = Double.POSITIVE_INFINITY; // prefere arcos que ainda cabem no orçamento
+
+    public int explored = 0;     // nós empilhados (dois lados) na última chamada
+
+    // Pilhas: fwd[0] = origem, bwd[0] = destino. pos*[v] = índice na pilha (-1 = fora), válido se
+    // stamp*[v] == epoch (visitado por aquele lado).
+    private int[] fwd = new int[64], bwd = new int[64];
+    private double[] usedF = new double[64], usedB = new double[64];
+    private int sizeF, sizeB;
+    private final int[] stampF, stampB, posF, posB;
+    private int epoch = 0;
+
+    public BidirectionalConstructor(Graph g, Landmarks landmarks, SplittableRandom rand) {
+        this.g = g.build();
+        this.rg = g.reverse();
+        this.landmarks = landmarks;
+        this.rand = rand;
+        stampF = new int[g.n];
+        stampB = new int[g.n];
+        posF = new int[g.n];
+        posB = new int[g.n];
+    }
+
+    // Completa 'path' de path.last() até t. Nós com blocked[v] == blockedEpoch ficam de fora (o
+    // prefixo do caminho); blocked pode ser null. Desiste depois de 'maxBacktracks' recuos (somando
+    // os dois lados) ou se não há caminho, e aí 'path' não muda.
+    public boolean extend(Solution path, int t, int[] blocked, int blockedEpoch, int maxBacktracks) {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stampF, 0);
+            Arrays.fill(stampB, 0);
+            epoch = 1;
+        }
+        int s = path.last();
+        explored = 0;
+        if (s == t) return true;
+        double used0 = path.validPrefix == path.size() ? path.prefixResource[path.size() - 1] : 0;
+        sizeF = sizeB = 0;
+        pushF(s, used0);
+        pushB(t, 0);
+        int backtracks = 0;
+
+        while (true) {
+            // Lado da ida
+            int a = pick(g, fwd[sizeF - 1], bwd[sizeB - 1], stampF, blocked, blockedEpoch, s, t, true,
+                    usedF[sizeF - 1] + usedB[sizeB - 1]);
+            if (a >= 0) {
+                int v = g.targets[a];
+                if (stampB[v] == epoch && posB[v] >= 0) {
+                    join(path, posB[v], -1);
+                    return true;
+                }
+                pushF(v, usedF[sizeF - 1] + g.resource[a]);
+            } else {
+                if (sizeF == 1 || ++backtracks > maxBacktracks) return false;
+                posF[fwd[--sizeF]] = -1;
+            }
+
+            // Lado da volta: arco u -> v no reverso é v -> u no grafo
+            a = pick(rg, bwd[sizeB - 1], fwd[sizeF - 1], stampB, blocked, blockedEpoch, s, t, false,
+                    usedF[sizeF - 1] + usedB[sizeB - 1]);
+            if (a >= 0) {
+                int v = rg.targets[a];
+                if (stampF[v] == epoch && posF[v] >= 0) {
+                    join(path, sizeB - 1, posF[v]);
+                    return true;
+                }
+                pushB(v, usedB[sizeB - 1] + rg.resource[a]);
+            } else {
+                if (sizeB == 1 || ++backtracks > maxBacktracks) return false;
+                posB[bwd[--sizeB]] = -1;
+            }
+        }
+    }
+
+    // Caminho = fwd[0..lastF] + bwd[fromB], bwd[fromB-1], ..., bwd[0] (lastF = -1: a ida inteira).
+    private void join(Solution path, int fromB, int lastF) {
+        if (lastF < 0) lastF = sizeF - 1;
+        for (int i = 1; i <= lastF; i++) path.add(fwd[i]);
+        for (int j = fromB; j >= 0; j--) path.add(bwd[j]);
+    }
+
+    private void pushF(int v, double used) {
+        if (sizeF == fwd.length) {
+            fwd = Arrays.copyOf(fwd, sizeF * 2);
+            usedF = Arrays.copyOf(usedF, sizeF * 2);
+        }
+        stampF[v] = epoch;
+        posF[v] = sizeF;
+        usedF[sizeF] = used;
+        fwd[sizeF++] = v;
+        explored++;
+    }
+
+    private void pushB(int v, double used) {
+        if (sizeB == bwd.length) {
+            bwd = Arrays.copyOf(bwd, sizeB * 2);
+            usedB = Arrays.copyOf(usedB, sizeB * 2);
+        }
+        stampB[v] = epoch;
+        posB[v] = sizeB;
+        usedB[sizeB] = used;
+        bwd[sizeB++] = v;
+        explored++;
+    }
+
+    // Reservoir sampling (k = 1) sobre os arcos de u em 'graph' para nós ainda não visitados por
+    // este lado. Prefere os que cabem em R (recurso dos dois trechos + arco + limite do landmark
+    // até o topo 'other' da outra pilha); se nenhum couber, aceita qualquer um. Retorna o arco ou -1.
+    private int pick(Graph graph, int u, int other, int[] seen, int[] blocked, int blockedEpoch, int s, int t,
+            boolean forward, double used) {
+        double pu = potential(u, s, t, forward);
+        int feasible = -1;
+        int any = -1;
+        double weightFeasible = 0;
+        double weightAny = 0;
+        for (int a = graph.offsets[u]; a < graph.offsets[u + 1]; a++) {
+            int v = graph.targets[a];
+            if (seen[v] == epoch || (blocked != null && blocked[v] == blockedEpoch && v != s && v != t)) continue;
+            double pv = potential(v, s, t, forward);
+            if (pv == Double.POSITIVE_INFINITY) continue;
+
+            double w = 1.0;
+            if (guided && landmarks != null) {
+                w = 1.0 / (1.0 + Math.max(0, graph.cost[a] + pv - pu));
+            }
+            double x = rand.nextDouble();
+            weightAny += w;
+            if (x * weightAny < w) any = a;
+            double rest = landmarks == null ? 0
+                    : forward ? landmarks.lowerBound(Landmarks.RESOURCE, v, other)
+                    : landmarks.lowerBound(Landmarks.RESOURCE, other, v);
+            if (used + graph.resource[a] + rest <= R) {
+                weightFeasible += w;
+                if (x * weightFeasible < w) feasible = a;
+            }
+        }
+        return feasible >= 0 ? feasible : any;
+    }
+
+    // Limite de custo até a outra ponta: d(v, t) na ida, d(s, v) na volta (0 sem landmarks).
+    private double potential(int v, int s, int t, boolean forward) {
+        if (landmarks == null) return 0;
+        return forward ? landmarks.lowerBound(Landmarks.COST, v, t) : landmarks.lowerBound(Landmarks.COST, s, v);
+    }
+}
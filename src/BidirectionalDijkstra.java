@@ -0,0 +1,113 @@
+import java.util.*;
+
+// Dijkstra bidirecional limitado, para trocar um trecho curto de um caminho (ver Neighborhood).
+// Busca para frente de s no grafo e para trás de t no reverso, com peso wCost * custo + wRes * recurso,
+// e para ao fixar maxSettled nós somando os dois lados (o trecho tem que ser "local"); nesse caso
+// devolve o melhor encontro visto até ali, que pode não ser o mínimo.
+// Nós marcados em blocked[] (== blockedEpoch) são proibidos, exceto s e t; é assim que o trecho novo
+// evita o resto do caminho. Buffers reaproveitados entre chamadas (marcação por época).
+public class BidirectionalDijkstra {
+    final Graph g, rg;
+    int maxSettled = 2000;
+
+    private final double[] distF, distB;
+    private final int[] predF, predB;   // predF: nó anterior vindo de s; predB: próximo nó rumo a t
+    private final int[] stampF, stampB;
+    private int epoch = 0;
+    private final MinHeap heapF = new MinHeap(1024);
+    private final MinHeap heapB = new MinHeap(1024);
+
+    private int meet = -1;
+    private int s, t;
+    public int settledCount = 0;
+
+    public BidirectionalDijkstra(Graph g) {
+        this.g = g.build();
+        this.rg = g.reverse();
+        distF = new double[g.n];
+        distB = new double[g.n];
+        predF = new int[g.n];
+        predB = new int[g.n];
+        stampF = new int[g.n];
+        stampB = new int[g.n];
+    }
+
+    // Distância s -> t pelo peso combinado; +infinito se os lados não se encontrarem dentro do limite.
+    public double run(int s, int t, double wCost, double wRes, int[] blocked, int blockedEpoch) {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stampF, 0);
+            Arrays.fill(stampB, 0);
+            epoch = 1;
+        }
+        this.s = s;
+        this.t = t;
+        meet = -1;
+        settledCount = 0;
+        heapF.clear();
+        heapB.clear();
+        stampF[s] = epoch;
+        distF[s] = 0;
+        predF[s] = -1;
+        heapF.push(s, 0);
+        stampB[t] = epoch;
+        distB[t] = 0;
+        predB[t] = -1;
+        heapB.push(t, 0);
+
+        double best = s == t ? 0 : Double.POSITIVE_INFINITY;
+        if (s == t) meet = s;
+
+        while (!heapF.isEmpty() && !heapB.isEmpty()) {
+            // Chaves obsoletas só são menores que a real: o teste é conservador
+            if (heapF.peekKey() + heapB.peekKey() >= best) break;
+            if (settledCount >= maxSettled) break;
+
+            boolean forward = heapF.size() <= heapB.size();
+            MinHeap heap = forward ? heapF : heapB;
+            double d = heap.peekKey();
+            int u = heap.pop();
+            double[] dist = forward ? distF : distB;
+            if (d > dist[u]) continue;
+            settledCount++;
+
+            Graph side = forward ? g : rg;
+            int[] stamp = forward ? stampF : stampB;
+            int[] pred = forward ? predF : predB;
+            int[] otherStamp = forward ? stampB : stampF;
+            double[] otherDist = forward ? distB : distF;
+
+            for (int a = side.offsets[u]; a < side.offsets[u + 1]; a++) {
+                int v = side.targets[a];
+                if (blocked[v] == blockedEpoch && v != s && v != t) continue;
+                double nd = d + wCost * side.cost[a] + wRes * side.resource[a];
+                if (stamp[v] != epoch || nd < dist[v]) {
+                    stamp[v] = epoch;
+                    dist[v] = nd;
+                    pred[v] = u;
+                    heap.push(v, nd);
+                    if (otherStamp[v] == epoch && nd + otherDist[v] < best) {
+                        best = nd + otherDist[v];
+                        meet = v;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // Acrescenta a 'out' o caminho da última execução sem o nó s (de s exclusive até t inclusive).
+    // Retorna false se não houve encontro.
+    public boolean appendPath(Solution out) {
+        if (meet < 0) return false;
+        int start = out.size();
+        for (int v = meet; v != s; v = predF[v]) out.add(v);
+        // Lado de frente foi montado de trás para frente
+        for (int i = start, j = out.size() - 1; i < j; i++, j--) {
+            int tmp = out.path[i];
+            out.path[i] = out.path[j];
+            out.path[j] = tmp;
+        }
+        for (int v = predB[meet]; v >= 0; v = predB[v]) out.add(v);
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+// Estratégia de resfriamento do SA.
+// Um ciclo vai de t0 até tMin em 'iterations' iterações; init() é chamado no começo de cada ciclo
+// (início da busca e cada reaquecimento do modo anytime), next() uma vez por iteração.
+public interface CoolingSchedule {
+    void init(double t0, double tMin, int iterations);
+
+    // Temperatura da próxima iteração. 'accepted': o movimento foi aceito; 'improved': melhorou o best.
+    double next(double t, boolean accepted, boolean improved);
+
+    // T0 para que uma piora média 'meanDelta' seja aceita com probabilidade 'acceptance':
+    // exp(-meanDelta / T0) = acceptance.
+    static double initialTemperature(double meanDelta, double acceptance) {
+        return -meanDelta / Math.log(acceptance);
+    }
+
+    // Nome usado na linha de comando (BenchmarkRunner) -> estratégia com parâmetros padrão.
+    static CoolingSchedule byName(String name) {
+        switch (name) {
+            case "geometrico": return new Geometric();
+            case "lundy-mees": return new LundyMees();
+            case "adaptativo": return new AdaptiveAcceptance();
+            case "reaquecimento": return new Reheating(new Geometric());
+            default: throw new IllegalArgumentException("Resfriamento desconhecido: " + name);
+        }
+    }
+
+    // T <- alpha * T. Com alpha <= 0, escolhe alpha para chegar a tMin exatamente no fim do ciclo.
+    class Geometric implements CoolingSchedule {
+        final double alpha;
+        private double factor;
+
+        public Geometric() {
+            this(0);
+        }
+
+        public Geometric(double alpha) {
+            this.alpha = alpha;
+        }
+
+        @Override
+        public void init(double t0, double tMin, int iterations) {
+            factor = alpha > 0 ? alpha : Math.pow(tMin / t0, 1.0 / Math.max(1, iterations));
+        }
+
+        @Override
+        public double next(double t, boolean accepted, boolean improved) {
+            return t * factor;
+        }
+    }
+
+    // Lundy-Mees: T <- T / (1 + beta*T). Cai rápido no começo e devagar perto de tMin
+    // (mais tempo nas temperaturas baixas, onde o refinamento acontece).
+    class LundyMees implements CoolingSchedule {
+        final double beta;
+        private double b;
+
+        public LundyMees() {
+            this(0);
+        }
+
+        public LundyMees(double beta) {
+            this.beta = beta;
+        }
+
+        @Override
+        public void init(double t0, double tMin, int iterations) {
+            // 1/T_N = 1/T0 + N*beta
+            b = beta > 0 ? beta : (1.0 / tMin - 1.0 / t0) / Math.max(1, iterations);
+        }
+
+        @Override
+        public double next(double t, boolean accepted, boolean improved) {
+            return t / (1 + b * t);
+        }
+    }
+
+    // Controla a taxa de aceitação em vez da temperatura: a taxa alvo cai geometricamente de
+    // startRate até endRate ao longo do ciclo e, a cada 'window' iterações, T sobe ou desce 'step'
+    // conforme a taxa observada ficou abaixo ou acima do alvo. Independe da escala dos custos.
+    class AdaptiveAcceptance implements CoolingSchedule {
+        double startRate = 0.5;
+        double endRate = 0.005;
+        int window = 100;
+        double step = 0.1;
+
+        private double rate, decay;
+        private int seen, acceptedInWindow;
+
+        @Override
+        public void init(double t0, double tMin, int iterations) {
+            rate = startRate;
+            decay = Math.pow(endRate / startRate, 1.0 / Math.max(1, iterations));
+            seen = 0;
+            acceptedInWindow = 0;
+        }
+
+        @Override
+        public double next(double t, boolean accepted, boolean improved) {
+            rate *= decay;
+            if (accepted) acceptedInWindow++;
+            if (++seen < window) return t;
+            double observed = (double) acceptedInWindow / window;
+            seen = 0;
+            acceptedInWindow = 0;
+            return observed > rate ? t * (1 - step) : t * (1 + step);
+        }
+    }
+
+    // Decorador: se passar 'patience' iterações sem melhorar o best, volta a T = factor * t0
+    // (se estiver abaixo disso) e segue resfriando com a estratégia interna.
+    class Reheating implements CoolingSchedule {
+        final CoolingSchedule inner;
+        int patience = 2000;
+        double factor = 0.5;
+        public int reheats = 0;
+
+        private double t0;
+        private int sinceImprovement;
+
+        public Reheating(CoolingSchedule inner) {
+            this.inner = inner;
+        }
+
+        @Override
+        public void init(double t0, double tMin, int iterations) {
+            inner.init(t0, tMin, iterations);
+            this.t0 = t0;
+            this.sinceImprovement = 0;
+        }
+
+        @Override
+        public double next(double t, boolean accepted, boolean improved) {
+            if (improved) {
+                sinceImprovement = 0;
+            } else if (++sinceImprovement >= patience) {
+                sinceImprovement = 0;
+                if (t < factor * t0) {
+                    reheats++;
+                    return factor * t0;
+                }
+            }
+            return inner.next(t, accepted, improved);
+        }
+    }
+}
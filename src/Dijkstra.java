@@ -0,0 +1,86 @@
+import java.util.*;
+
+// Dijkstra sobre o CSR com peso combinado wCost * custo + wRes * recurso (ou um recurso k só, runResource).
+// Buffers reaproveitados entre chamadas (marcação por época), então rodar várias vezes no
+// mesmo grafo (ex.: Lagrangiano) não aloca nada além do crescimento do heap.
+public class Dijkstra {
+    final Graph g;
+    private final double[] dist;
+    private final int[] pred;
+    private final int[] stamp;
+    private int epoch = 0;
+    private final MinHeap heap;
+
+    public int settledCount = 0;
+
+    public Dijkstra(Graph g) {
+        this.g = g.build();
+        dist = new double[g.n];
+        pred = new int[g.n];
+        stamp = new int[g.n];
+        heap = new MinHeap(g.n);
+    }
+
+    // Distâncias a partir de s; para cedo ao fixar t (t < 0 calcula a árvore inteira).
+    // Retorna a distância até t (ou +infinito se inalcançável).
+    public double run(int s, int t, double wCost, double wRes) {
+        return search(s, t, wCost, g.cost, wRes, g.resource);
+    }
+
+    // Só o recurso k (0 <= k < K) como peso.
+    public double runResource(int s, int t, int k) {
+        if (k == 0) return search(s, t, 0, g.cost, 1, g.resource);
+        return search(s, t, 0, g.cost, 1, g.extraResource[k - 1]);
+    }
+
+    private double search(int s, int t, double wCost, double[] cost, double wRes, double[] resource) {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            epoch = 1;
+        }
+        settledCount = 0;
+        heap.clear();
+        stamp[s] = epoch;
+        dist[s] = 0;
+        pred[s] = -1;
+        heap.push(s, 0);
+
+        while (!heap.isEmpty()) {
+            double d = heap.peekKey();
+            int u = heap.pop();
+            if (d > dist[u]) continue; // entrada obsoleta
+            settledCount++;
+            if (u == t) return d;
+
+            for (int a = g.offsets[u]; a < g.offsets[u + 1]; a++) {
+                int v = g.targets[a];
+                double nd = d + wCost * cost[a] + wRes * resource[a];
+                if (stamp[v] != epoch || nd < dist[v]) {
+                    stamp[v] = epoch;
+                    dist[v] = nd;
+                    pred[v] = u;
+                    heap.push(v, nd);
+                }
+            }
+        }
+        return t < 0 ? 0 : distance(t);
+    }
+
+    public double distance(int v) {
+        return stamp[v] == epoch ? dist[v] : Double.POSITIVE_INFINITY;
+    }
+
+    // Escreve em 'out' o caminho da última execução até t; false se t não foi alcançado.
+    public boolean pathTo(int t, Solution out) {
+        out.clear();
+        if (stamp[t] != epoch) return false;
+        for (int v = t; v >= 0; v = pred[v]) out.add(v);
+        // Foi montado de trás para frente
+        for (int i = 0, j = out.length - 1; i < j; i++, j--) {
+            int tmp = out.path[i];
+            out.path[i] = out.path[j];
+            out.path[j] = tmp;
+        }
+        return true;
+    }
+}
@@ -1,25 +1,435 @@
-import java.util.*;
-
-public class Graph {
-    int n;
-    // Lista de Adjacência
-    List<List<Edge>> adj;
-
-    public Graph(int n) {
-        this.n = n;
-        adj = new ArrayList<>();
-        // Inicializa slots para evitar NullPointer depois
-        for (int i = 0; i < n; i++) {
-            adj.add(new ArrayList<>());
-        }
-    }
-
-    public void addEdge(int u, int v, double cost, double resource) {
-        // Grafo Direcionado (u -> v). Se a instância for não-direcionada, precisa duplicar a aresta (v -> u).
-        adj.get(u).add(new Edge(v, cost, resource));
-    }
-
-    public List<Edge> getNeighbors(int u) {
-        return adj.get(u);
-    }
-}
\ No newline at end of file
+import java.util.*;
+
+public class Graph {
+    int n;
+    int m;
+
+    // Representação CSR (Compressed Sparse Row): os arcos que saem de u ficam em
+    // [offsets[u], offsets[u+1]), ordenados por destino (empate mantém a ordem de inserção).
+    int[] offsets;
+    int[] targets;
+    double[] cost;
+    double[] resource;
+    // Recursos 1..K-1 por coluna: extraResource[k - 1][a] é o recurso k do arco a (resource é a coluna 0).
+    // Null com K = 1, então o caso de um recurso só não paga nada a mais.
+    double[][] extraResource;
+    int resourceCount = 1;
+
+    // Buffer de construção (lista de arcos); convertido para CSR sob demanda.
+    private int[] edgeFrom = new int[16];
+    private int[] edgeTo = new int[16];
+    private double[] edgeCost = new double[16];
+    private double[] edgeResource = new double[16];
+    private double[][] edgeExtra;
+    private boolean built = false;
+
+    // Grafo transposto (v -> u para cada u -> v), montado sob demanda e guardado.
+    // Caches lidos por várias threads (cadeias, trabalhadores, consultas): volatile + montagem sob o
+    // lock do grafo, então só uma thread calcula e as outras veem o objeto completo.
+    private volatile Graph reversed;
+    // Landmarks (ALT) padrão, também sob demanda; ficam com o grafo que os calculou
+    private volatile Landmarks landmarks;
+
+    public Graph(int n) {
+        this.n = n;
+    }
+
+    // Grafo com K recursos por arco (K = 1 equivale a Graph(n)).
+    public Graph(int n, int resources) {
+        this(n);
+        if (resources < 1) throw new IllegalArgumentException("K deve ser >= 1: " + resources);
+        resourceCount = resources;
+        if (resources > 1) edgeExtra = new double[resources - 1][16];
+    }
+
+    // Adota vetores de arcos já preenchidos (ex.: pelo InstanceLoader) e monta o CSR sem copiar arco a arco.
+    static Graph fromEdges(int n, int[] from, int[] to, double[] cost, double[] resource, int count) {
+        return fromEdges(n, from, to, cost, resource, null, count);
+    }
+
+    // Idem com recursos extras por coluna (extra[k - 1] = recurso k; null = só um recurso).
+    static Graph fromEdges(int n, int[] from, int[] to, double[] cost, double[] resource, double[][] extra,
+            int count) {
+        Graph g = new Graph(n, extra == null ? 1 : extra.length + 1);
+        g.edgeFrom = from;
+        g.edgeTo = to;
+        g.edgeCost = cost;
+        g.edgeResource = resource;
+        g.edgeExtra = extra;
+        g.m = count;
+        return g.build();
+    }
+
+    // Monta um grafo já em CSR (arcos ordenados por destino dentro de cada nó, sem paralelos).
+    static Graph fromCsr(int n, int[] offsets, int[] targets, double[] cost, double[] resource) {
+        return fromCsr(n, offsets, targets, cost, resource, null);
+    }
+
+    static Graph fromCsr(int n, int[] offsets, int[] targets, double[] cost, double[] resource, double[][] extra) {
+        Graph g = new Graph(n, extra == null ? 1 : extra.length + 1);
+        g.offsets = offsets;
+        g.targets = targets;
+        g.cost = cost;
+        g.resource = resource;
+        g.extraResource = extra;
+        g.edgeExtra = null;
+        g.m = offsets[n];
+        g.edgeFrom = null;
+        g.built = true;
+        return g;
+    }
+
+    // Com K > 1 os recursos extras deste arco ficam zerados (ver a versão com vetor).
+    public void addEdge(int u, int v, double cost, double resource) {
+        // Grafo Direcionado (u -> v). Se a instância for não-direcionada, precisa duplicar a aresta (v -> u).
+        appendEdge(u, v, cost, resource);
+        if (edgeExtra != null) {
+            for (double[] col : edgeExtra) col[m - 1] = 0;
+        }
+    }
+
+    // resources[k] = recurso k do arco (resources.length == K).
+    public void addEdge(int u, int v, double cost, double[] resources) {
+        if (resources.length != resourceCount) {
+            throw new IllegalArgumentException("Esperados " + resourceCount + " recursos, recebidos " + resources.length);
+        }
+        appendEdge(u, v, cost, resources[0]);
+        for (int k = 1; k < resourceCount; k++) edgeExtra[k - 1][m - 1] = resources[k];
+    }
+
+    private void appendEdge(int u, int v, double cost, double resource) {
+        if (u < 0 || u >= n || v < 0 || v >= n) {
+            throw new IllegalArgumentException("Aresta fora do intervalo de nós: " + u + " -> " + v);
+        }
+        if (edgeFrom == null) unpackEdges();
+        if (m == edgeFrom.length) {
+            int cap = Math.max(16, edgeFrom.length * 2);
+            edgeFrom = Arrays.copyOf(edgeFrom, cap);
+            edgeTo = Arrays.copyOf(edgeTo, cap);
+            edgeCost = Arrays.copyOf(edgeCost, cap);
+            edgeResource = Arrays.copyOf(edgeResource, cap);
+            if (edgeExtra != null) {
+                for (int k = 0; k < edgeExtra.length; k++) edgeExtra[k] = Arrays.copyOf(edgeExtra[k], cap);
+            }
+        }
+        edgeFrom[m] = u;
+        edgeTo[m] = v;
+        edgeCost[m] = cost;
+        edgeResource[m] = resource;
+        m++;
+        built = false;
+        reversed = null;
+        landmarks = null;
+    }
+
+    // Grafo criado direto em CSR: reconstrói a lista de arcos para aceitar novas inserções.
+    private void unpackEdges() {
+        int cap = Math.max(16, m * 2);
+        edgeFrom = new int[cap];
+        edgeTo = Arrays.copyOf(targets, cap);
+        edgeCost = Arrays.copyOf(cost, cap);
+        edgeResource = Arrays.copyOf(resource, cap);
+        if (extraResource != null) {
+            edgeExtra = new double[extraResource.length][];
+            for (int k = 0; k < extraResource.length; k++) edgeExtra[k] = Arrays.copyOf(extraResource[k], cap);
+        }
+        for (int u = 0; u < n; u++) {
+            Arrays.fill(edgeFrom, offsets[u], offsets[u + 1], u);
+        }
+    }
+
+    // Transposto em CSR por counting sort; percorrer u em ordem crescente já deixa os destinos ordenados.
+    public Graph reverse() {
+        Graph r = reversed;
+        if (r != null) return r;
+        synchronized (this) {
+            build();
+            if (reversed == null) reversed = buildReverse();
+            return reversed;
+        }
+    }
+
+    private Graph buildReverse() {
+        int arcs = offsets[n];
+        int[] rOffsets = new int[n + 1];
+        for (int a = 0; a < arcs; a++) rOffsets[targets[a] + 1]++;
+        for (int v = 0; v < n; v++) rOffsets[v + 1] += rOffsets[v];
+
+        int[] rTargets = new int[arcs];
+        double[] rCost = new double[arcs];
+        double[] rResource = new double[arcs];
+        double[][] rExtra = extraResource == null ? null : new double[extraResource.length][arcs];
+        int[] next = Arrays.copyOf(rOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                int b = next[targets[a]]++;
+                rTargets[b] = u;
+                rCost[b] = cost[a];
+                rResource[b] = resource[a];
+                if (rExtra != null) {
+                    for (int k = 0; k < rExtra.length; k++) rExtra[k][b] = extraResource[k][a];
+                }
+            }
+        }
+        Graph r = fromCsr(n, rOffsets, rTargets, rCost, rResource, rExtra);
+        r.reversed = this; // antes de publicar 'r'
+        return r;
+    }
+
+    public Landmarks landmarks() {
+        Landmarks lm = landmarks;
+        if (lm != null) return lm;
+        synchronized (this) {
+            build();
+            if (landmarks == null) landmarks = new Landmarks(this, Landmarks.DEFAULT_COUNT, 0);
+            return landmarks;
+        }
+    }
+
+    // Já calculados ou lidos do snapshot (aí LowerBounds.forTarget usa ALT em vez do Dijkstra reverso).
+    // Graph.apply devolve um grafo sem landmarks: as tabelas do antigo não valem para o novo.
+    public boolean hasLandmarks() {
+        return landmarks != null;
+    }
+
+    // Landmarks pré-processados (GraphSnapshot); precisam ter sido calculados sobre este mesmo grafo.
+    public void useLandmarks(Landmarks lm) {
+        build();
+        if (lm.from[Landmarks.COST].length != (long) n * lm.count()) {
+            throw new IllegalArgumentException("Landmarks de outro grafo: " + lm.count() + " landmarks, n = " + n);
+        }
+        synchronized (this) {
+            landmarks = lm;
+        }
+    }
+
+    // Monta o CSR com dois counting sorts estáveis (destino, depois origem): O(n + m).
+    public Graph build() {
+        if (built) return this;
+
+        int[] byTarget = new int[m];
+        int[] count = new int[n + 1];
+        for (int i = 0; i < m; i++) count[edgeTo[i] + 1]++;
+        for (int v = 0; v < n; v++) count[v + 1] += count[v];
+        for (int i = 0; i < m; i++) byTarget[count[edgeTo[i]]++] = i;
+
+        offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) offsets[edgeFrom[i] + 1]++;
+        for (int u = 0; u < n; u++) offsets[u + 1] += offsets[u];
+
+        targets = new int[m];
+        cost = new double[m];
+        resource = new double[m];
+        extraResource = edgeExtra == null ? null : new double[edgeExtra.length][m];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int k = 0; k < m; k++) {
+            int i = byTarget[k];
+            int a = next[edgeFrom[i]]++;
+            targets[a] = edgeTo[i];
+            cost[a] = edgeCost[i];
+            resource[a] = edgeResource[i];
+            if (extraResource != null) {
+                for (int j = 0; j < extraResource.length; j++) extraResource[j][a] = edgeExtra[j][i];
+            }
+        }
+        removeParallelArcs();
+        built = true;
+        return this;
+    }
+
+    // Um caminho é uma sequência de nós, então u -> v sempre se resolve pelo primeiro arco inserido;
+    // os paralelos seguintes nunca seriam usados e atrapalhariam os solvers exatos. Compacta no lugar.
+    private void removeParallelArcs() {
+        int w = 0;
+        for (int u = 0; u < n; u++) {
+            int begin = offsets[u];
+            int end = offsets[u + 1];
+            offsets[u] = w;
+            for (int a = begin; a < end; a++) {
+                if (a > begin && targets[a] == targets[a - 1]) continue;
+                targets[w] = targets[a];
+                cost[w] = cost[a];
+                resource[w] = resource[a];
+                if (extraResource != null) {
+                    for (double[] col : extraResource) col[w] = col[a];
+                }
+                w++;
+            }
+        }
+        offsets[n] = w;
+        if (w < targets.length) {
+            targets = Arrays.copyOf(targets, w);
+            cost = Arrays.copyOf(cost, w);
+            resource = Arrays.copyOf(resource, w);
+            if (extraResource != null) {
+                for (int k = 0; k < extraResource.length; k++) extraResource[k] = Arrays.copyOf(extraResource[k], w);
+            }
+        }
+    }
+
+    // Copy-on-write: devolve um grafo novo com o lote aplicado e não altera este (nem o CSR, nem o transposto).
+    // Se o lote só muda custos/recursos, offsets/targets são compartilhados e só as colunas alteradas são
+    // copiadas; remoções/inserções remontam o CSR em O(n + m). Arco inexistente (ou já existente, na
+    // inserção) é erro de quem montou o lote.
+    public Graph apply(GraphUpdate up) {
+        build();
+        for (int i = 0; i < up.size; i++) {
+            int u = up.from[i], v = up.to[i];
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("Aresta fora do intervalo de nós: " + u + " -> " + v);
+            }
+            if (up.extra[i] != null && up.extra[i].length != resourceCount - 1) {
+                throw new IllegalArgumentException("Esperados " + resourceCount + " recursos em " + u + " -> " + v);
+            }
+        }
+        if (!up.structural()) return applyChanges(up);
+
+        // Lista de arcos = CSR atual + inserções; removidos só são marcados e ficam de fora na compactação
+        int arcs = offsets[n];
+        int cap = arcs + up.size;
+        int[] from = new int[cap];
+        int[] to = Arrays.copyOf(targets, cap);
+        double[] c = Arrays.copyOf(cost, cap);
+        double[] r = Arrays.copyOf(resource, cap);
+        double[][] x = null;
+        if (extraResource != null) {
+            x = new double[extraResource.length][];
+            for (int k = 0; k < x.length; k++) x[k] = Arrays.copyOf(extraResource[k], cap);
+        }
+        boolean[] removed = new boolean[cap];
+        for (int u = 0; u < n; u++) Arrays.fill(from, offsets[u], offsets[u + 1], u);
+
+        int count = arcs;
+        for (int i = 0; i < up.size; i++) {
+            int u = up.from[i], v = up.to[i];
+            int e = findArc(u, v);
+            if (e >= 0 && removed[e]) e = -1;
+            // Arcos inseridos neste mesmo lote (poucos): busca linear
+            for (int j = arcs; e < 0 && j < count; j++) {
+                if (!removed[j] && from[j] == u && to[j] == v) e = j;
+            }
+            if (up.kind[i] == GraphUpdate.INSERT) {
+                if (e >= 0) throw new IllegalArgumentException("Arco já existe: " + u + " -> " + v);
+                e = count++;
+                from[e] = u;
+                to[e] = v;
+            } else if (e < 0) {
+                throw new IllegalArgumentException("Arco inexistente: " + u + " -> " + v);
+            }
+            if (up.kind[i] == GraphUpdate.REMOVE) {
+                removed[e] = true;
+                continue;
+            }
+            c[e] = up.cost[i];
+            r[e] = up.resource[i];
+            // Inserção sem vetor fica com os extras zerados (posições novas já vêm zeradas)
+            if (up.extra[i] != null) {
+                for (int k = 0; k < x.length; k++) x[k][e] = up.extra[i][k];
+            }
+        }
+
+        int w = 0;
+        for (int e = 0; e < count; e++) {
+            if (removed[e]) continue;
+            from[w] = from[e];
+            to[w] = to[e];
+            c[w] = c[e];
+            r[w] = r[e];
+            if (x != null) {
+                for (double[] col : x) col[w] = col[e];
+            }
+            w++;
+        }
+        return fromEdges(n, from, to, c, r, x, w);
+    }
+
+    private Graph applyChanges(GraphUpdate up) {
+        // Toda alteração reescreve custo e recurso 0; as colunas extras só são copiadas se alguma mudar
+        boolean extras = false;
+        for (int i = 0; i < up.size; i++) extras |= up.extra[i] != null;
+        double[] c = cost.clone();
+        double[] r = resource.clone();
+        double[][] x = extraResource;
+        if (extras) {
+            x = new double[extraResource.length][];
+            for (int k = 0; k < x.length; k++) x[k] = extraResource[k].clone();
+        }
+        for (int i = 0; i < up.size; i++) {
+            int a = findArc(up.from[i], up.to[i]);
+            if (a < 0) throw new IllegalArgumentException("Arco inexistente: " + up.from[i] + " -> " + up.to[i]);
+            c[a] = up.cost[i];
+            r[a] = up.resource[i];
+            if (up.extra[i] != null) {
+                for (int k = 0; k < x.length; k++) x[k][a] = up.extra[i][k];
+            }
+        }
+        return fromCsr(n, offsets, targets, c, r, x);
+    }
+
+    // Intervalo de arcos de u no CSR: for (int a = g.arcStart(u); a < g.arcEnd(u); a++)
+    public int arcStart(int u) {
+        build();
+        return offsets[u];
+    }
+
+    public int arcEnd(int u) {
+        build();
+        return offsets[u + 1];
+    }
+
+    // Número de arcos no CSR (m menos os paralelos descartados).
+    public int arcCount() {
+        build();
+        return offsets[n];
+    }
+
+    public int degree(int u) {
+        build();
+        return offsets[u + 1] - offsets[u];
+    }
+
+    public int head(int a) {
+        return targets[a];
+    }
+
+    public double cost(int a) {
+        return cost[a];
+    }
+
+    public double resource(int a) {
+        return resource[a];
+    }
+
+    // Recurso k (0 <= k < K) do arco a.
+    public double resource(int k, int a) {
+        return k == 0 ? resource[a] : extraResource[k - 1][a];
+    }
+
+    public int resourceCount() {
+        return resourceCount;
+    }
+
+    // Busca binária do arco u -> v entre os destinos ordenados de u: O(log d).
+    // Retorna -1 se o arco não existir.
+    public int findArc(int u, int v) {
+        build();
+        int lo = offsets[u];
+        int hi = offsets[u + 1];
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (targets[mid] < v) lo = mid + 1;
+            else hi = mid;
+        }
+        return (lo < offsets[u + 1] && targets[lo] == v) ? lo : -1;
+    }
+
+    // Compatibilidade: materializa os vizinhos como objetos Edge. Fora do laço crítico apenas.
+    public List<Edge> getNeighbors(int u) {
+        build();
+        List<Edge> list = new ArrayList<>(offsets[u + 1] - offsets[u]);
+        for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+            list.add(new Edge(targets[a], cost[a], resource[a]));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,399 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Formato binário de instância (".pcmr"): cabeçalho fixo + vetores do CSR, little-endian.
+//
+//   0  magic "PCMR"        4  versão (int)        8  n (int)           12 arcos (int)
+//   16 origem (int)        20 destino (int)       24 R (double)        32 CRC32 dos dados (long)
+//   40..63 reservado
+//   64 offsets int[n+1] | targets int[arcos] | (pad p/ 8 bytes) | cost double[arcos] | resource double[arcos]
+//
+// Versão 2 (grafos com K > 1 recursos): K (int) em 40 e, depois de resource, os recursos 1..K-1 em
+// colunas (double[arcos] cada) seguidos dos limites extras da consulta (double[K-1]). Com K = 1 o
+// arquivo continua sendo gravado na versão 1.
+//
+// Versão 3 (grafo com landmarks pré-processados, ver Landmarks): K (int) em 40 mesmo com K = 1 e o
+// número L de landmarks (int) em 44. Depois da parte da versão 1/2 vêm os nós (int[L], pad p/ 8 bytes)
+// e as tabelas do ALT no layout do Landmarks (double[n*L] cada): from custo, from recurso, to custo,
+// to recurso. O CRC cobre tudo. Na leitura os landmarks vão para o Graph (Graph.useLandmarks) e as
+// consultas usam ALT em vez de um Dijkstra reverso por destino (LowerBounds.forTarget).
+//
+// A leitura mapeia cada seção com FileChannel.map e copia em bloco para os vetores do Graph,
+// então o custo é praticamente só o do page cache (compartilhado entre processos).
+public class GraphSnapshot {
+    static final int MAGIC = 0x524D4350; // "PCMR" lido em little-endian
+    static final int VERSION = 1;
+    static final int VERSION_MULTI = 2;
+    static final int VERSION_LANDMARKS = 3;
+    static final int HEADER_SIZE = 64;
+    private static final int CHUNK = 1 << 20; // elementos por bloco de escrita
+
+    // Pré-processamento offline: --landmarks=L calcula L landmarks (ALT) e grava as tabelas junto.
+    public static void main(String[] args) throws IOException {
+        int landmarks = 0;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--landmarks=")) landmarks = Integer.parseInt(arg.substring("--landmarks=".length()));
+            else files.add(arg);
+        }
+        if (files.isEmpty()) {
+            System.out.println("Uso: java GraphSnapshot <instancia> [saida.pcmr] [--landmarks=L]");
+            return;
+        }
+        String in = files.get(0);
+        String out = files.size() > 1 ? files.get(1) : in.replaceAll("\\.(txt|pcmr)$", "") + ".pcmr";
+        if (out.equals(in)) throw new IllegalArgumentException("Saída igual à entrada: " + in);
+        long start = System.currentTimeMillis();
+        Instance inst = InstanceLoader.load(in);
+        if (landmarks > 0) {
+            long t = System.currentTimeMillis();
+            Landmarks lm = new Landmarks(inst.graph.build(), landmarks, 0);
+            inst.graph.useLandmarks(lm);
+            System.out.println("Landmarks: " + lm.count() + " (" + (lm.bytes() >> 20) + " MB, "
+                    + (System.currentTimeMillis() - t) + "ms)");
+        }
+        write(inst, out);
+        System.out.println("Convertido: " + in + " -> " + out + " ("
+                + (System.currentTimeMillis() - start) + "ms)");
+    }
+
+    public static boolean isSnapshot(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_SIZE) return false;
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            ch.read(b, 0);
+            return b.getInt(0) == MAGIC;
+        }
+    }
+
+    // Grava também os landmarks se o grafo já os tiver (calculados ou lidos).
+    public static void write(Instance inst, String filePath) throws IOException {
+        Graph g = inst.graph.build();
+        Landmarks lm = g.hasLandmarks() ? g.landmarks() : null;
+        int n = g.n;
+        int arcs = g.arcCount();
+        CRC32 crc = new CRC32();
+
+        try (FileChannel ch = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(CHUNK * 8).order(ByteOrder.LITTLE_ENDIAN);
+            ch.position(HEADER_SIZE);
+
+            writeInts(ch, buf, g.offsets, n + 1, crc);
+            writeInts(ch, buf, g.targets, arcs, crc);
+            if (((n + 1 + arcs) & 1) != 0) {
+                buf.clear();
+                buf.putInt(0).flip();
+                crc.update(buf.duplicate());
+                writeFully(ch, buf);
+            }
+            writeDoubles(ch, buf, g.cost, arcs, crc);
+            writeDoubles(ch, buf, g.resource, arcs, crc);
+            int K = g.resourceCount();
+            if (K > 1) {
+                for (double[] col : g.extraResource) writeDoubles(ch, buf, col, arcs, crc);
+                double[] limits = new double[K - 1];
+                Arrays.fill(limits, Double.POSITIVE_INFINITY);
+                if (inst.extraLimits != null) System.arraycopy(inst.extraLimits, 0, limits, 0, K - 1);
+                writeDoubles(ch, buf, limits, K - 1, crc);
+            }
+            if (lm != null) {
+                int L = lm.count();
+                writeInts(ch, buf, lm.nodes, L, crc);
+                if ((L & 1) != 0) {
+                    buf.clear();
+                    buf.putInt(0).flip();
+                    crc.update(buf.duplicate());
+                    writeFully(ch, buf);
+                }
+                for (double[][] side : new double[][][] {lm.from, lm.to}) {
+                    for (int metric = Landmarks.COST; metric <= Landmarks.RESOURCE; metric++) {
+                        writeDoubles(ch, buf, side[metric], n * L, crc);
+                    }
+                }
+            }
+
+            int version = lm != null ? VERSION_LANDMARKS : K > 1 ? VERSION_MULTI : VERSION;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(version).putInt(n).putInt(arcs)
+                  .putInt(inst.source).putInt(inst.target).putDouble(inst.R).putLong(crc.getValue());
+            if (version != VERSION) header.putInt(K);
+            if (lm != null) header.putInt(lm.count());
+            header.clear();
+            ch.position(0);
+            writeFully(ch, header);
+        }
+    }
+
+    public static Instance read(String filePath) throws IOException {
+        return read(filePath, true);
+    }
+
+    // Com verify = false pula o CRC (útil quando o mesmo arquivo é aberto por muitos processos);
+    // as checagens estruturais do CSR (checkStructure) valem sempre.
+    public static Instance read(String filePath, boolean verify) throws IOException {
+        Path path = Paths.get(filePath);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_SIZE) throw new IOException("Snapshot truncado: " + filePath);
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) throw new IOException("Não é um snapshot PCMR: " + filePath);
+            int version = header.getInt(4);
+            if (version != VERSION && version != VERSION_MULTI && version != VERSION_LANDMARKS) {
+                throw new IOException("Versão de snapshot não suportada: " + version);
+            }
+            int n = header.getInt(8);
+            int arcs = header.getInt(12);
+            int source = header.getInt(16);
+            int target = header.getInt(20);
+            double R = header.getDouble(24);
+            long checksum = header.getLong(32);
+            if (n < 1 || arcs < 0) {
+                throw new IOException("Cabeçalho inválido em " + filePath + ": n = " + n + ", m = " + arcs);
+            }
+            if (source < 0 || source >= n || target < 0 || target >= n) {
+                throw new IOException("Origem/destino fora de [0, " + n + ") em " + filePath + ": " + source
+                        + " -> " + target);
+            }
+            int K = version != VERSION ? header.getInt(40) : 1;
+            if (K < 1) throw new IOException("Número de recursos inválido em " + filePath + ": " + K);
+            int L = version == VERSION_LANDMARKS ? header.getInt(44) : 0;
+            if (L < 0 || (L > 0 && (long) n * L > Integer.MAX_VALUE / 8)) {
+                throw new IOException("Número de landmarks inválido em " + filePath + ": " + L);
+            }
+
+            long intBytes = 4L * (n + 1 + arcs);
+            long pad = intBytes & 4;
+            long expected = HEADER_SIZE + intBytes + pad + 8L * (K + 1) * arcs + 8L * (K - 1)
+                    + 4L * (L + (L & 1)) + 32L * n * L;
+            if (ch.size() != expected) {
+                throw new IOException("Tamanho inconsistente em " + filePath + ": " + ch.size() + " != " + expected);
+            }
+            CRC32 crc = verify ? new CRC32() : null;
+
+            long pos = HEADER_SIZE;
+            int[] offsets = new int[n + 1];
+            map(ch, pos, 4L * (n + 1), crc).asIntBuffer().get(offsets);
+            pos += 4L * (n + 1);
+            int[] targets = new int[arcs];
+            map(ch, pos, 4L * arcs + pad, crc).asIntBuffer().get(targets);
+            pos += 4L * arcs + pad;
+            // Mesmo sem CRC: um CSR malformado viraria índice fora do vetor (ou laço errado) bem longe daqui
+            checkStructure(filePath, n, arcs, offsets, targets);
+            double[] cost = new double[arcs];
+            map(ch, pos, 8L * arcs, crc).asDoubleBuffer().get(cost);
+            pos += 8L * arcs;
+            double[] resource = new double[arcs];
+            map(ch, pos, 8L * arcs, crc).asDoubleBuffer().get(resource);
+            pos += 8L * arcs;
+            double[][] extra = null;
+            double[] extraLimits = null;
+            if (K > 1) {
+                extra = new double[K - 1][arcs];
+                for (double[] col : extra) {
+                    map(ch, pos, 8L * arcs, crc).asDoubleBuffer().get(col);
+                    pos += 8L * arcs;
+                }
+                extraLimits = new double[K - 1];
+                map(ch, pos, 8L * (K - 1), crc).asDoubleBuffer().get(extraLimits);
+                pos += 8L * (K - 1);
+            }
+            Landmarks lm = null;
+            if (L > 0) {
+                int[] nodes = new int[L];
+                map(ch, pos, 4L * (L + (L & 1)), crc).asIntBuffer().get(nodes);
+                for (int v : nodes) {
+                    if (v < 0 || v >= n) {
+                        throw new IOException("Landmark fora de [0, " + n + ") em " + filePath + ": " + v);
+                    }
+                }
+                pos += 4L * (L + (L & 1));
+                double[][] from = new double[2][], to = new double[2][];
+                for (double[][] side : new double[][][] {from, to}) {
+                    for (int metric = Landmarks.COST; metric <= Landmarks.RESOURCE; metric++) {
+                        side[metric] = new double[n * L];
+                        map(ch, pos, 8L * n * L, crc).asDoubleBuffer().get(side[metric]);
+                        pos += 8L * n * L;
+                    }
+                }
+                lm = new Landmarks(nodes, from, to);
+            }
+
+            if (verify && crc.getValue() != checksum) {
+                throw new IOException("Checksum inválido em " + filePath);
+            }
+            Graph g = Graph.fromCsr(n, offsets, targets, cost, resource, extra);
+            if (lm != null) g.useLandmarks(lm);
+            Instance inst = new Instance(path.getFileName().toString(), g, source, target, R);
+            inst.extraLimits = extraLimits;
+            return inst;
+        }
+    }
+
+    // Checagens baratas (O(n + m), sem CRC): offsets[0] == 0, não decrescentes, offsets[n] == m e
+    // destinos em [0, n).
+    private static void checkStructure(String filePath, int n, int arcs, int[] offsets, int[] targets)
+            throws IOException {
+        if (offsets[0] != 0) throw new IOException("CSR inválido em " + filePath + ": offsets[0] = " + offsets[0]);
+        for (int u = 0; u < n; u++) {
+            if (offsets[u + 1] < offsets[u]) {
+                throw new IOException("CSR inválido em " + filePath + ": offsets decrescentes no nó " + u + " ("
+                        + offsets[u] + " > " + offsets[u + 1] + ")");
+            }
+        }
+        if (offsets[n] != arcs) {
+            throw new IOException("CSR inválido em " + filePath + ": offsets[n] = " + offsets[n] + " != m = " + arcs);
+        }
+        for (int a = 0; a < arcs; a++) {
+            if (targets[a] < 0 || targets[a] >= n) {
+                throw new IOException("CSR inválido em " + filePath + ": arco " + a + " aponta para " + targets[a]
+                        + ", fora de [0, " + n + ")");
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel ch, long pos, long size, CRC32 crc) throws IOException {
+        MappedByteBuffer mb = ch.map(FileChannel.MapMode.READ_ONLY, pos, size);
+        mb.order(ByteOrder.LITTLE_ENDIAN);
+        if (crc != null) crc.update(mb.duplicate());
+        return mb;
+    }
+
+    private static void writeInts(FileChannel ch, ByteBuffer buf, int[] a, int len, CRC32 crc) throws IOException {
+        for (int i = 0; i < len; i += CHUNK) {
+            int k = Math.min(CHUNK, len - i);
+            buf.clear();
+            buf.asIntBuffer().put(a, i, k);
+            buf.limit(4 * k);
+            crc.update(buf.duplicate());
+            writeFully(ch, buf);
+        }
+    }
+
+    private static void writeDoubles(FileChannel ch, ByteBuffer buf, double[] a, int len, CRC32 crc) throws IOException {
+        for (int i = 0; i < len; i += CHUNK) {
+            int k = Math.min(CHUNK, len - i);
+            buf.clear();
+            buf.asDoubleBuffer().put(a, i, k);
+            buf.limit(8 * k);
+            crc.update(buf.duplicate());
+            writeFully(ch, buf);
+        }
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf);
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) pos += ch.write(buf, pos);
+    }
+
+    // Escrita em fluxo, sem montar o Graph: os arcos chegam agrupados por origem (u não decrescente)
+    // e, dentro de cada origem, com destinos estritamente crescentes (o mesmo invariante do CSR do
+    // Graph). Como n e o total de arcos são conhecidos de antemão, cada seção do arquivo tem posição
+    // fixa e é escrita por um buffer próprio; o CRC é calculado no close() relendo os dados mapeados.
+    // Memória O(1) por arco: serve para gerar instâncias com dezenas de milhões de arcos. Só K = 1 (versão 1).
+    public static class Writer implements Closeable {
+        private final FileChannel ch;
+        private final int n, arcs, source, target;
+        private final double R;
+
+        private final ByteBuffer offsetBuf, targetBuf, costBuf, resourceBuf;
+        private long offsetPos, targetPos, costPos, resourcePos;
+        private final long padPos, end;
+
+        private int count = 0;
+        private int nextNode = 0;     // próximo nó cujo offset ainda não foi escrito
+        private int lastU = -1, lastV = -1;
+
+        public Writer(String filePath, int n, int arcs, int source, int target, double R) throws IOException {
+            this.n = n;
+            this.arcs = arcs;
+            this.source = source;
+            this.target = target;
+            this.R = R;
+            ch = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            offsetBuf = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            targetBuf = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            costBuf = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+            resourceBuf = ByteBuffer.allocateDirect(CHUNK).order(ByteOrder.LITTLE_ENDIAN);
+
+            long intBytes = 4L * (n + 1 + arcs);
+            offsetPos = HEADER_SIZE;
+            targetPos = HEADER_SIZE + 4L * (n + 1);
+            padPos = HEADER_SIZE + intBytes;
+            costPos = padPos + (intBytes & 4);
+            resourcePos = costPos + 8L * arcs;
+            end = resourcePos + 8L * arcs;
+        }
+
+        public void arc(int u, int v, double cost, double resource) throws IOException {
+            if (u < 0 || u < lastU || (u == lastU && v <= lastV) || u >= n || v < 0 || v >= n) {
+                throw new IllegalStateException("Arco fora de ordem ou do intervalo: " + u + " -> " + v);
+            }
+            if (count == arcs) throw new IllegalStateException("Mais arcos que o declarado: " + arcs);
+            while (nextNode <= u) putOffset(count);
+            lastU = u;
+            lastV = v;
+
+            if (!targetBuf.hasRemaining()) targetPos = flush(targetBuf, targetPos);
+            targetBuf.putInt(v);
+            if (!costBuf.hasRemaining()) costPos = flush(costBuf, costPos);
+            costBuf.putDouble(cost);
+            if (!resourceBuf.hasRemaining()) resourcePos = flush(resourceBuf, resourcePos);
+            resourceBuf.putDouble(resource);
+            count++;
+        }
+
+        private void putOffset(int value) throws IOException {
+            if (!offsetBuf.hasRemaining()) offsetPos = flush(offsetBuf, offsetPos);
+            offsetBuf.putInt(value);
+            nextNode++;
+        }
+
+        private long flush(ByteBuffer buf, long pos) throws IOException {
+            buf.flip();
+            int len = buf.remaining();
+            writeFully(ch, buf, pos);
+            buf.clear();
+            return pos + len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (count != arcs) {
+                    throw new IllegalStateException("Declarados " + arcs + " arcos, escritos " + count);
+                }
+                while (nextNode <= n) putOffset(count);
+                flush(offsetBuf, offsetPos);
+                flush(targetBuf, targetPos);
+                flush(costBuf, costPos);
+                flush(resourceBuf, resourcePos);
+                // Padding entre targets e cost (já é zero no arquivo novo, mas garante o tamanho)
+                if (((n + 1 + arcs) & 1) != 0) {
+                    writeFully(ch, ByteBuffer.allocate(4), padPos);
+                }
+
+                CRC32 crc = new CRC32();
+                for (long pos = HEADER_SIZE; pos < end; pos += 1 << 30) {
+                    crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(1 << 30, end - pos)));
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(arcs)
+                      .putInt(source).putInt(target).putDouble(R).putLong(crc.getValue());
+                header.clear();
+                writeFully(ch, header, 0);
+            } finally {
+                ch.close();
+            }
+        }
+    }
+}
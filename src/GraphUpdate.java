@@ -0,0 +1,115 @@
+import java.util.*;
+
+// Lote de mudanças no grafo (tráfego ao vivo): custo/recurso de arcos existentes, remoção e inserção.
+// Aplicado por Graph.apply(), que devolve um grafo novo e não mexe no antigo, então quem ainda está
+// resolvendo sobre a versão anterior continua vendo um grafo consistente (ver VersionedGraph).
+// As operações valem na ordem em que foram registradas (remover e inserir o mesmo arco = substituir).
+public class GraphUpdate {
+    static final byte CHANGE = 0, REMOVE = 1, INSERT = 2;
+
+    // Operação i = (kind[i], from[i], to[i], cost[i], resource[i], extra[i]); extra[i] só com K > 1
+    byte[] kind = new byte[16];
+    int[] from = new int[16];
+    int[] to = new int[16];
+    double[] cost = new double[16];
+    double[] resource = new double[16];
+    double[][] extra = new double[16][];
+    int size = 0;
+
+    private LongHashSet keys; // arcos tocados, montado no primeiro touches()
+
+    // Novo custo/recurso de um arco existente (com K > 1 os recursos extras não mudam).
+    public GraphUpdate change(int u, int v, double cost, double resource) {
+        return add(CHANGE, u, v, cost, resource, null);
+    }
+
+    // resources[k] = novo recurso k (resources.length == K do grafo).
+    public GraphUpdate change(int u, int v, double cost, double[] resources) {
+        return add(CHANGE, u, v, cost, resources[0], extras(resources));
+    }
+
+    public GraphUpdate remove(int u, int v) {
+        return add(REMOVE, u, v, 0, 0, null);
+    }
+
+    // Com K > 1 os recursos extras do arco novo ficam zerados (como em Graph.addEdge).
+    public GraphUpdate insert(int u, int v, double cost, double resource) {
+        return add(INSERT, u, v, cost, resource, null);
+    }
+
+    public GraphUpdate insert(int u, int v, double cost, double[] resources) {
+        return add(INSERT, u, v, cost, resources[0], extras(resources));
+    }
+
+    private static double[] extras(double[] resources) {
+        return resources.length > 1 ? Arrays.copyOfRange(resources, 1, resources.length) : null;
+    }
+
+    private GraphUpdate add(byte k, int u, int v, double c, double r, double[] x) {
+        if (size == kind.length) {
+            int cap = size * 2;
+            kind = Arrays.copyOf(kind, cap);
+            from = Arrays.copyOf(from, cap);
+            to = Arrays.copyOf(to, cap);
+            cost = Arrays.copyOf(cost, cap);
+            resource = Arrays.copyOf(resource, cap);
+            extra = Arrays.copyOf(extra, cap);
+        }
+        kind[size] = k;
+        from[size] = u;
+        to[size] = v;
+        cost[size] = c;
+        resource[size] = r;
+        extra[size] = x;
+        size++;
+        keys = null;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Só muda custos/recursos: o grafo novo pode reaproveitar offsets/targets do antigo.
+    boolean structural() {
+        for (int i = 0; i < size; i++) {
+            if (kind[i] != CHANGE) return true;
+        }
+        return false;
+    }
+
+    // Algum arco do caminho path[0..length-1] foi alterado ou removido por este lote?
+    public synchronized boolean touches(int[] path, int length) {
+        if (keys == null) {
+            keys = new LongHashSet(size);
+            for (int i = 0; i < size; i++) keys.add(LongHashSet.key(from[i], to[i]));
+        }
+        for (int i = 0; i + 1 < length; i++) {
+            if (keys.contains(LongHashSet.key(path[i], path[i + 1]))) return true;
+        }
+        return false;
+    }
+
+    // Pode ter barateado algum caminho de 'before' (inserção ou custo/recurso menor)? Se não puder,
+    // um caminho ótimo que não foi tocado continua ótimo: todos os outros só pioraram ou sumiram.
+    public boolean canImprove(Graph before) {
+        for (int i = 0; i < size; i++) {
+            if (kind[i] == INSERT) return true;
+            if (kind[i] != CHANGE) continue;
+            int a = before.findArc(from[i], to[i]);
+            if (a < 0 || cost[i] < before.cost[a] || resource[i] < before.resource[a]) return true;
+            for (int k = 0; extra[i] != null && k < extra[i].length; k++) {
+                if (extra[i][k] < before.extraResource[k][a]) return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        int[] count = new int[3];
+        for (int i = 0; i < size; i++) count[kind[i]]++;
+        return "GraphUpdate[alteracoes=" + count[CHANGE] + ", remocoes=" + count[REMOVE]
+                + ", insercoes=" + count[INSERT] + "]";
+    }
+}
@@ -0,0 +1,5 @@
+// Recebe cada nova melhor solução (incumbente) durante a busca.
+// 'best' é o buffer interno do solver: copie (Solution.copyFrom) se for guardar.
+public interface IncumbentListener {
+    void onImprovement(Solution best, int iteration, long elapsedNanos);
+}
@@ -0,0 +1,20 @@
+// Instância carregada: grafo + consulta (origem, destino, limite de recurso).
+public class Instance {
+    String name;
+    Graph graph;
+    int source, target;
+    double R;
+    // Grafo com K > 1 recursos: limite do recurso k em extraLimits[k - 1] (null com K = 1)
+    double[] extraLimits;
+
+    // Arcos descartados na carga (nós fora do intervalo [0, n)).
+    int skippedEdges = 0;
+
+    public Instance(String name, Graph graph, int source, int target, double R) {
+        this.name = name;
+        this.graph = graph;
+        this.source = source;
+        this.target = target;
+        this.R = R;
+    }
+}
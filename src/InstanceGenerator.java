@@ -1,85 +1,496 @@
-import java.io.*;
-import java.util.*;
-
-public class InstanceGenerator {
-
-    public static void main(String[] args) throws IOException {
-        Object[][] configs = {
-            {20, 50, "inst_pequena.txt"},
-            {50, 200, "inst_media.txt"},
-            {100, 800, "inst_grande.txt"},
-            {200, 2000, "inst_muito_grande.txt"}
-        };
-
-        for (Object[] cfg : configs) {
-            int n = (int) cfg[0];
-            int m = (int) cfg[1];
-            String filename = "instances/" + (String) cfg[2];
-            
-            new File("instances").mkdirs();
-            
-            generate(n, m, filename);
-            System.out.println("Gerado: " + filename);
-        }
-    }
-
-    public static void generate(int n, int m, String filename) throws IOException {
-        Random rand = new Random();
-        StringBuilder sb = new StringBuilder();
-
-        int source = 0;
-        int target = n - 1;
-        
-        // Heurística para R: Valor alto o suficiente para permitir soluções,
-        // mas baixo o suficiente para não trivializar o problema (virar Shortest Path comum).
-        double R = (n * 5.0); 
-
-        // Header spec: N M Source Target R
-        sb.append(n).append(" ").append(m).append(" ")
-          .append(source).append(" ").append(target).append(" ")
-          .append(String.format(Locale.US, "%.2f", R)).append("\n");
-
-        Set<String> existingEdges = new HashSet<>();
-        List<String> edgesLines = new ArrayList<>();
-
-        // Garante viabilidade: Cria um caminho "backbone" (0 -> 1 -> ... -> Target).
-        int current = source;
-        for (int i = 1; i < n; i++) {
-            addEdge(current, i, rand, edgesLines, existingEdges);
-            current = i;
-        }
-
-        // Adiciona as arestas restantes aleatoriamente para criar complexidade.
-        int edgesToGenerate = m - (n - 1);
-        for (int i = 0; i < edgesToGenerate; i++) {
-            int u = rand.nextInt(n);
-            int v = rand.nextInt(n);
-            
-            // Grafo simples
-            if (u != v && !existingEdges.contains(u + "-" + v)) {
-                addEdge(u, v, rand, edgesLines, existingEdges);
-            } else {
-                i--; 
-            }
-        }
-
-        for (String line : edgesLines) {
-            sb.append(line).append("\n");
-        }
-
-        try (PrintWriter out = new PrintWriter(new FileWriter(filename))) {
-            out.print(sb.toString());
-        }
-    }
-
-    private static void addEdge(int u, int v, Random rand, List<String> lines, Set<String> exist) {
-        // Ranges arbitrários: Cost [1, 21), Resource [1, 11)
-        double cost = 1.0 + rand.nextDouble() * 20.0; 
-        double resource = 1.0 + rand.nextDouble() * 10.0; 
-        
-        lines.add(u + " " + v + " " + 
-                  String.format(Locale.US, "%.2f", cost) + " " + 
-                  String.format(Locale.US, "%.2f", resource));
-        exist.add(u + "-" + v);
-    }
-}
\ No newline at end of file
+import java.io.*;
+import java.util.*;
+
+// Gerador de instâncias.
+//  - Sem --topologia: as quatro instâncias clássicas de instances/ (modelo aleatório com backbone).
+//  - Com --topologia: instâncias grandes em fluxo, sem montar o grafo em memória. Os arcos saem
+//    agrupados por origem e com destinos ordenados, então dá para gravar direto o snapshot binário
+//    (GraphSnapshot.Writer) além do texto. Famílias:
+//      grade            malha tipo rede viária (4-vizinhança + vias expressas a cada 'via' linhas/colunas);
+//      livre-de-escala  graus de entrada em lei de potência (poucos "hubs" muito procurados);
+//      camadas          DAG de salto limitado, o modelo de Main.generateAllInstances;
+//      aleatoria        destinos uniformes.
+//    Custo e recurso de cada arco podem ser correlacionados (--correlacao em [-1, 1]; negativo =
+//    arcos baratos gastam mais recurso, o caso difícil do PCMRC).
+public class InstanceGenerator {
+
+    enum Topology { GRID, SCALE_FREE, LAYERED, RANDOM }
+
+    static class Spec {
+        Topology topology = Topology.RANDOM;
+        int n;
+        long m;                  // arcos desejados (na grade é determinado pela malha)
+        double correlation = 0;
+        double R = -1;           // < 0: estimado pelo número de saltos esperado (ver estimateBudget)
+        long seed;
+        int maxJump;             // camadas: 0 = max(5, n/10), como em Main
+        int highwaySpacing = 8;  // grade
+        double exponent = 2.5;   // livre-de-escala: expoente da lei de potência
+
+        // Faixas dos sorteios (as mesmas do modelo clássico)
+        double costMin = 1, costMax = 21;
+        double resourceMin = 1, resourceMax = 11;
+    }
+
+    interface EdgeSink {
+        void arc(int u, int v, double cost, double resource) throws IOException;
+    }
+
+    // Uso: java InstanceGenerator [--binario] [--seed=N]
+    //      (--binario grava também o snapshot .pcmr de cada instância; a mesma semente gera os mesmos arquivos)
+    //  ou: java InstanceGenerator --topologia=<grade|livre-de-escala|camadas|aleatoria> --n=N --m=M
+    //          [--correlacao=C] [--R=valor] [--salto=J] [--via=H] [--saida=arquivo] [--binario] [--seed=N]
+    public static void main(String[] args) throws IOException {
+        boolean binary = Arrays.asList(args).contains("--binario");
+        long seed = Seeds.fromArgs(args);
+        System.out.println("Semente: " + seed);
+
+        String topology = option(args, "topologia");
+        if (topology != null) {
+            Spec spec = new Spec();
+            spec.topology = parseTopology(topology);
+            spec.n = Integer.parseInt(option(args, "n"));
+            spec.m = option(args, "m") != null ? Long.parseLong(option(args, "m")) : 4L * spec.n;
+            spec.seed = seed;
+            if (option(args, "correlacao") != null) spec.correlation = Double.parseDouble(option(args, "correlacao"));
+            if (option(args, "R") != null) spec.R = Double.parseDouble(option(args, "R"));
+            if (option(args, "salto") != null) spec.maxJump = Integer.parseInt(option(args, "salto"));
+            if (option(args, "via") != null) spec.highwaySpacing = Integer.parseInt(option(args, "via"));
+            String out = option(args, "saida");
+            if (out == null) {
+                out = "instances/" + topology + "_" + spec.n + (binary ? ".pcmr" : ".txt");
+            }
+            File parent = new File(out).getAbsoluteFile().getParentFile();
+            if (parent != null) parent.mkdirs();
+
+            long start = System.currentTimeMillis();
+            long arcs = binary ? generateBinary(spec, out) : generateText(spec, out);
+            System.out.println("Gerado: " + out + " (" + arcs + " arcos, "
+                    + (System.currentTimeMillis() - start) + "ms)");
+            return;
+        }
+
+        Object[][] configs = {
+            {20, 50, "inst_pequena.txt"},
+            {50, 200, "inst_media.txt"},
+            {100, 800, "inst_grande.txt"},
+            {200, 2000, "inst_muito_grande.txt"}
+        };
+
+        for (Object[] cfg : configs) {
+            int n = (int) cfg[0];
+            int m = (int) cfg[1];
+            String filename = "instances/" + (String) cfg[2];
+
+            new File("instances").mkdirs();
+
+            generate(n, m, filename, Seeds.derive(seed, "gerador:" + cfg[2]));
+            System.out.println("Gerado: " + filename);
+
+            if (binary) {
+                String binName = filename.replaceAll("\\.txt$", "") + ".pcmr";
+                GraphSnapshot.write(InstanceLoader.load(filename), binName);
+                System.out.println("Gerado: " + binName);
+            }
+        }
+    }
+
+    private static String option(String[] args, String name) {
+        String prefix = "--" + name + "=";
+        for (String a : args) {
+            if (a.startsWith(prefix)) return a.substring(prefix.length());
+        }
+        return null;
+    }
+
+    static Topology parseTopology(String name) {
+        switch (name) {
+            case "grade": return Topology.GRID;
+            case "livre-de-escala": return Topology.SCALE_FREE;
+            case "camadas": return Topology.LAYERED;
+            case "aleatoria": return Topology.RANDOM;
+            default: throw new IllegalArgumentException("Topologia desconhecida: " + name);
+        }
+    }
+
+    public static void generate(int n, int m, String filename) throws IOException {
+        generate(n, m, filename, new Random().nextLong());
+    }
+
+    // Modelo clássico: backbone 0 -> 1 -> ... -> n-1 e arcos aleatórios sem repetição.
+    // Escreve em fluxo; a deduplicação usa chaves long (u << 32 | v) num conjunto primitivo.
+    public static void generate(int n, int m, String filename, long seed) throws IOException {
+        Random rand = new Random(seed);
+
+        int source = 0;
+        int target = n - 1;
+
+        // Heurística para R: Valor alto o suficiente para permitir soluções,
+        // mas baixo o suficiente para não trivializar o problema (virar Shortest Path comum).
+        double R = (n * 5.0);
+
+        try (TextWriter out = new TextWriter(filename)) {
+            // Header spec: N M Source Target R
+            out.header(n, m, source, target, R);
+
+            LongHashSet existingEdges = new LongHashSet(m);
+
+            // Garante viabilidade: Cria um caminho "backbone" (0 -> 1 -> ... -> Target).
+            int current = source;
+            for (int i = 1; i < n; i++) {
+                addEdge(current, i, rand, out, existingEdges);
+                current = i;
+            }
+
+            // Adiciona as arestas restantes aleatoriamente para criar complexidade.
+            int edgesToGenerate = m - (n - 1);
+            for (int i = 0; i < edgesToGenerate; i++) {
+                int u = rand.nextInt(n);
+                int v = rand.nextInt(n);
+
+                // Grafo simples
+                if (u != v && !existingEdges.contains(LongHashSet.key(u, v))) {
+                    addEdge(u, v, rand, out, existingEdges);
+                } else {
+                    i--;
+                }
+            }
+        }
+    }
+
+    private static void addEdge(int u, int v, Random rand, TextWriter out, LongHashSet exist) throws IOException {
+        // Ranges arbitrários: Cost [1, 21), Resource [1, 11)
+        double cost = 1.0 + rand.nextDouble() * 20.0;
+        double resource = 1.0 + rand.nextDouble() * 10.0;
+
+        out.arc(u, v, cost, resource);
+        exist.add(LongHashSet.key(u, v));
+    }
+
+    public static long generateText(Spec spec, String filename) throws IOException {
+        long arcs = countArcs(spec);
+        try (TextWriter out = new TextWriter(filename)) {
+            out.header(spec.n, arcs, 0, spec.n - 1, budget(spec));
+            emit(spec, out::arc);
+        }
+        return arcs;
+    }
+
+    public static long generateBinary(Spec spec, String filename) throws IOException {
+        long arcs = countArcs(spec);
+        if (arcs > Integer.MAX_VALUE) throw new IllegalArgumentException("Arcos demais para o CSR: " + arcs);
+        try (GraphSnapshot.Writer out = new GraphSnapshot.Writer(filename, spec.n, (int) arcs, 0, spec.n - 1,
+                budget(spec))) {
+            emit(spec, out::arc);
+        }
+        return arcs;
+    }
+
+    // ---- Graus: função determinística de u (sem sorteio), para saber o total antes de escrever ----
+
+    static long countArcs(Spec spec) {
+        long total = 0;
+        if (spec.topology == Topology.GRID) {
+            Grid grid = new Grid(spec);
+            for (int u = 0; u < spec.n; u++) total += grid.neighbors(u, null);
+            return total;
+        }
+        double weightSum = spec.topology == Topology.SCALE_FREE ? powerLawSum(spec) : 0;
+        for (int u = 0; u < spec.n; u++) total += degree(spec, u, weightSum);
+        return total;
+    }
+
+    private static int maxJump(Spec spec) {
+        return spec.maxJump > 0 ? spec.maxJump : Math.max(5, spec.n / 10);
+    }
+
+    // Grau de saída de u; inclui o arco do backbone u -> u+1 (garante caminho 0 -> n-1).
+    private static int degree(Spec spec, int u, double weightSum) {
+        int n = spec.n;
+        long base;
+        if (spec.topology == Topology.SCALE_FREE) {
+            // Graus de saída também em lei de potência (os hubs saem e chegam muito)
+            base = Math.round(spec.m * powerLawWeight(spec, u) / weightSum);
+        } else {
+            base = spec.m / n + (u < spec.m % n ? 1 : 0);
+        }
+        int cap = spec.topology == Topology.LAYERED ? Math.min(maxJump(spec), n - 1 - u)
+                : spec.topology == Topology.SCALE_FREE ? (n - 1) / 2 : n - 1;
+        int backbone = u < n - 1 ? 1 : 0;
+        return (int) Math.max(backbone, Math.min(cap, base));
+    }
+
+    private static double powerLawAlpha(Spec spec) {
+        return 1.0 / (spec.exponent - 1);
+    }
+
+    private static double powerLawWeight(Spec spec, int u) {
+        return Math.pow(u + 1, -powerLawAlpha(spec));
+    }
+
+    private static double powerLawSum(Spec spec) {
+        double sum = 0;
+        for (int u = 0; u < spec.n; u++) sum += powerLawWeight(spec, u);
+        return sum;
+    }
+
+    // Sorteio de destino com P(v) ~ (v+1)^-alpha por inversão da distribuição contínua (O(1), sem tabela).
+    private static int powerLawTarget(double alpha, int n, SplittableRandom rand) {
+        double e = 1 - alpha;
+        double top = Math.pow(n + 1, e) - 1;
+        int v = (int) (Math.pow(1 + rand.nextDouble() * top, 1 / e) - 1);
+        return Math.min(n - 1, Math.max(0, v));
+    }
+
+    // ---- Emissão em fluxo: para cada u, destinos distintos, ordenados, e custos sorteados ----
+
+    static void emit(Spec spec, EdgeSink sink) throws IOException {
+        int n = spec.n;
+        SplittableRandom rand = new SplittableRandom(spec.seed);
+        int[] stamp = new int[n];       // destinos já escolhidos para o u corrente (stamp == u + 1)
+        int[] targets = new int[16];
+        double[] lengths = new double[16];
+        Grid grid = spec.topology == Topology.GRID ? new Grid(spec) : null;
+        double weightSum = spec.topology == Topology.SCALE_FREE ? powerLawSum(spec) : 0;
+        double alpha = powerLawAlpha(spec);
+        int jump = maxJump(spec);
+
+        for (int u = 0; u < n; u++) {
+            int deg;
+            if (grid != null) {
+                deg = grid.neighbors(u, null);
+                if (deg > targets.length) targets = new int[Math.max(deg, targets.length * 2)];
+                grid.neighbors(u, targets);
+            } else {
+                deg = degree(spec, u, weightSum);
+                if (deg > targets.length) targets = new int[Math.max(deg, targets.length * 2)];
+                int k = 0;
+                int mark = u + 1;
+                stamp[u] = mark;
+                if (u < n - 1) {
+                    targets[k++] = u + 1;
+                    stamp[u + 1] = mark;
+                }
+                if (spec.topology == Topology.LAYERED) {
+                    k = pickRange(u + 1, Math.min(n - 1, u + jump), deg, targets, k, stamp, mark, rand);
+                } else {
+                    // Poucos destinos entre muitos candidatos: rejeição com marcação
+                    int tries = 0;
+                    while (k < deg) {
+                        int v = spec.topology == Topology.SCALE_FREE && tries < 8 * deg
+                                ? powerLawTarget(alpha, n, rand) : rand.nextInt(n);
+                        tries++;
+                        if (stamp[v] == mark) continue;
+                        stamp[v] = mark;
+                        targets[k++] = v;
+                    }
+                }
+            }
+            Arrays.sort(targets, 0, deg);
+
+            for (int k = 0; k < deg; k++) {
+                int v = targets[k];
+                double length = grid != null ? grid.length(u, v) : 1.0;
+                double x = rand.nextDouble();
+                double y = correlated(x, rand.nextDouble(), spec.correlation);
+                double cost = spec.costMin + x * (spec.costMax - spec.costMin);
+                double resource = spec.resourceMin + y * (spec.resourceMax - spec.resourceMin);
+                if (grid != null && length > 1) {
+                    // Via expressa: mais barata por quadra, mas gasta mais recurso (pedágio)
+                    cost *= 0.6;
+                    resource *= 1.5;
+                }
+                // Duas casas, como no texto: a instância binária e a texto ficam idênticas
+                sink.arc(u, v, round2(cost * length), round2(resource * length));
+            }
+        }
+    }
+
+    // Escolhe 'count' destinos distintos em [lo, hi] (alguns já podem estar em targets[0..k)).
+    private static int pickRange(int lo, int hi, int count, int[] targets, int k, int[] stamp, int mark,
+            SplittableRandom rand) {
+        int size = hi - lo + 1;
+        if (count * 2 <= size) {
+            while (k < count) {
+                int v = lo + rand.nextInt(size);
+                if (stamp[v] == mark) continue;
+                stamp[v] = mark;
+                targets[k++] = v;
+            }
+            return k;
+        }
+        // Denso: embaralha parcialmente os candidatos livres (Fisher-Yates) e pega os primeiros
+        int[] free = new int[size];
+        int f = 0;
+        for (int v = lo; v <= hi; v++) {
+            if (stamp[v] != mark) free[f++] = v;
+        }
+        for (int i = 0; k < count && i < f; i++) {
+            int j = i + rand.nextInt(f - i);
+            int tmp = free[i];
+            free[i] = free[j];
+            free[j] = tmp;
+            stamp[free[i]] = mark;
+            targets[k++] = free[i];
+        }
+        return k;
+    }
+
+    // y em [0, 1) com correlação aproximada 'rho' com x (ambos uniformes).
+    static double correlated(double x, double z, double rho) {
+        double a = Math.abs(rho);
+        return a * (rho >= 0 ? x : 1 - x) + (1 - a) * z;
+    }
+
+    static double round2(double x) {
+        return Math.round(x * 100) / 100.0;
+    }
+
+    // R estimado: saltos esperados até o destino x recurso médio por arco. Grosseiro; use --R para fixar.
+    static double budget(Spec spec) {
+        if (spec.R >= 0) return spec.R;
+        double meanRes = (spec.resourceMin + spec.resourceMax) / 2;
+        double hops;
+        int n = spec.n;
+        switch (spec.topology) {
+            case GRID:
+                Grid grid = new Grid(spec);
+                hops = grid.rows + grid.cols - 2;
+                break;
+            case LAYERED:
+                hops = (n - 1) / ((maxJump(spec) + 1) / 2.0);
+                break;
+            default:
+                hops = Math.log(n) / Math.log(Math.max(2.0, (double) spec.m / n));
+        }
+        return round2(Math.max(1, hops) * meanRes);
+    }
+
+    // Malha rows x cols (a última linha pode ser incompleta), nó u = (u / cols, u % cols).
+    static class Grid {
+        final int n, rows, cols, spacing;
+
+        Grid(Spec spec) {
+            n = spec.n;
+            cols = (int) Math.ceil(Math.sqrt(n));
+            rows = (n + cols - 1) / cols;
+            spacing = Math.max(2, spec.highwaySpacing);
+        }
+
+        // Vizinhos de u (4-vizinhança + vias expressas nas linhas/colunas múltiplas de 'spacing').
+        // Com out == null só conta.
+        int neighbors(int u, int[] out) {
+            int r = u / cols, c = u % cols;
+            int k = 0;
+            k = add(r - 1, c, out, k);
+            k = add(r + 1, c, out, k);
+            k = add(r, c - 1, out, k);
+            k = add(r, c + 1, out, k);
+            if (r % spacing == 0) {
+                k = add(r, c - spacing, out, k);
+                k = add(r, c + spacing, out, k);
+            }
+            if (c % spacing == 0) {
+                k = add(r - spacing, c, out, k);
+                k = add(r + spacing, c, out, k);
+            }
+            return k;
+        }
+
+        private int add(int r, int c, int[] out, int k) {
+            if (r < 0 || c < 0 || c >= cols) return k;
+            long v = (long) r * cols + c;
+            if (v >= n) return k;
+            if (out != null) out[k] = (int) v;
+            return k + 1;
+        }
+
+        double length(int u, int v) {
+            return Math.abs(u / cols - v / cols) + Math.abs(u % cols - v % cols);
+        }
+    }
+
+    // Saída texto sem String.format: números escritos direto num buffer de bytes.
+    static class TextWriter implements Closeable {
+        private final OutputStream out;
+        private final byte[] buf = new byte[1 << 16];
+        private int pos = 0;
+
+        TextWriter(String filename) throws IOException {
+            out = new FileOutputStream(filename);
+        }
+
+        void header(int n, long m, int source, int target, double R) throws IOException {
+            putLong(n);
+            put(' ');
+            putLong(m);
+            put(' ');
+            putLong(source);
+            put(' ');
+            putLong(target);
+            put(' ');
+            putFixed2(R);
+            put('\n');
+        }
+
+        void arc(int u, int v, double cost, double resource) throws IOException {
+            // Maior linha possível: 2 inteiros e 2 decimais de ~20 dígitos
+            if (pos > buf.length - 96) flush();
+            putLong(u);
+            put(' ');
+            putLong(v);
+            put(' ');
+            putFixed2(cost);
+            put(' ');
+            putFixed2(resource);
+            put('\n');
+        }
+
+        private void put(char ch) throws IOException {
+            if (pos == buf.length) flush();
+            buf[pos++] = (byte) ch;
+        }
+
+        private void putLong(long x) throws IOException {
+            if (pos > buf.length - 21) flush();
+            if (x < 0) {
+                buf[pos++] = '-';
+                x = -x;
+            }
+            int start = pos;
+            do {
+                buf[pos++] = (byte) ('0' + x % 10);
+                x /= 10;
+            } while (x > 0);
+            for (int i = start, j = pos - 1; i < j; i++, j--) {
+                byte t = buf[i];
+                buf[i] = buf[j];
+                buf[j] = t;
+            }
+        }
+
+        // Duas casas decimais, arredondando meio para cima (como %.2f para os valores gerados)
+        private void putFixed2(double x) throws IOException {
+            long cents = Math.round(x * 100);
+            if (cents < 0) {
+                put('-');
+                cents = -cents;
+            }
+            putLong(cents / 100);
+            put('.');
+            put((char) ('0' + (cents / 10) % 10));
+            put((char) ('0' + cents % 10));
+        }
+
+        private void flush() throws IOException {
+            out.write(buf, 0, pos);
+            pos = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+
+// Leitor de instâncias em texto sem Scanner: lê o arquivo em blocos grandes por FileChannel
+// e converte inteiros/decimais direto dos bytes, sem criar Strings por token.
+// Aceita os dois cabeçalhos presentes em instances/:
+//   "N M S T R" numa linha só (geradores)   ou   "N M" + "S T R" em duas linhas (inst_20.txt).
+// Com K > 1 recursos a linha do R traz os K limites ("... R1 R2 ... RK") e cada arco "u v c r1 ... rK".
+// Se o arquivo tiver menos arestas que M, carrega as que existem.
+// Arquivos no formato binário de GraphSnapshot também são aceitos.
+public class InstanceLoader {
+    private static final int BUFFER_SIZE = 1 << 22;
+
+    private final FileChannel channel;
+    private final String name;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] buf = buffer.array();
+    private int pos = 0;
+    private int limit = 0;
+    private int line = 1; // linha corrente (1 = primeira), só para as mensagens de erro
+
+    // Token numérico corrente, guardado só para o caso raro de precisar de Double.parseDouble.
+    // Cresce sob demanda (keep), então não há limite de tamanho por número.
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    private InstanceLoader(FileChannel channel, String name) {
+        this.channel = channel;
+        this.name = name;
+    }
+
+    public static Instance load(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("Arquivo nao encontrado: " + filePath);
+        }
+        // Snapshot binário (GraphSnapshot) é reconhecido pelo magic, independente da extensão
+        if (GraphSnapshot.isSnapshot(path)) {
+            return GraphSnapshot.read(filePath);
+        }
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new InstanceLoader(ch, path.getFileName().toString()).parse();
+        }
+    }
+
+    private Instance parse() throws IOException {
+        if (!skipBlank()) throw new IOException("Arquivo vazio: " + name);
+
+        int n = (int) readLong();
+        int m = (int) readLong();
+        // No cabeçalho em duas linhas a primeira termina depois de N e M; nos dois casos
+        // S T R vêm em seguida, então basta o leitor atravessar a quebra de linha.
+        int source = (int) readLong();
+        int target = (int) readLong();
+        double R = readDouble();
+        // Limites dos recursos extras até o fim da linha
+        double[] extraLimits = new double[0];
+        while (!endOfLine()) {
+            extraLimits = Arrays.copyOf(extraLimits, extraLimits.length + 1);
+            extraLimits[extraLimits.length - 1] = readDouble();
+        }
+        int extras = extraLimits.length;
+        if (n <= 0 || m < 0) throw new IOException("Cabeçalho inválido em " + name + ": N=" + n + " M=" + m);
+        if (source < 0 || source >= n || target < 0 || target >= n) {
+            throw new IOException("Origem/destino fora do intervalo em " + name);
+        }
+
+        int[] from = new int[m];
+        int[] to = new int[m];
+        double[] cost = new double[m];
+        double[] resource = new double[m];
+        double[][] extra = extras > 0 ? new double[extras][m] : null;
+        int count = 0;
+        int skipped = 0;
+
+        for (int i = 0; i < m && skipBlank(); i++) {
+            int u = (int) readLong();
+            int v = (int) readLong();
+            double c = readDouble();
+            double r = readDouble();
+            for (int k = 0; k < extras; k++) extra[k][count] = readDouble();
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                skipped++;
+                continue;
+            }
+            from[count] = u;
+            to[count] = v;
+            cost[count] = c;
+            resource[count] = r;
+            count++;
+        }
+
+        Instance inst = new Instance(name, Graph.fromEdges(n, from, to, cost, resource, extra, count), source, target, R);
+        inst.extraLimits = extras > 0 ? extraLimits : null;
+        inst.skippedEdges = skipped;
+        return inst;
+    }
+
+    // ---- leitura de bytes ----
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        pos = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    // Pula espaços e quebras de linha; false no fim do arquivo. As quebras só contam em 'line' quando
+    // aparece um token depois delas: um erro de fim de arquivo aponta a última linha com conteúdo.
+    private boolean skipBlank() throws IOException {
+        int breaks = 0;
+        while (true) {
+            if (pos == limit && !fill()) return false;
+            byte b = buf[pos];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                line += breaks;
+                return true;
+            }
+            if (b == '\n') breaks++;
+            pos++;
+        }
+    }
+
+    // Pula espaços da linha atual e diz se ela acabou (quebra de linha ou fim do arquivo).
+    private boolean endOfLine() throws IOException {
+        while (true) {
+            if (pos == limit && !fill()) return true;
+            byte b = buf[pos];
+            if (b == '\n' || b == '\r') return true;
+            if (b != ' ' && b != '\t') return false;
+            pos++;
+        }
+    }
+
+    private long readLong() throws IOException {
+        if (!skipBlank()) throw new EOFException("Fim de arquivo inesperado em " + where());
+        boolean negative = false;
+        if (buf[pos] == '-') {
+            negative = true;
+            pos++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (pos < limit || fill()) {
+            byte b = buf[pos];
+            if (b < '0' || b > '9') break;
+            value = value * 10 + (b - '0');
+            digits++;
+            pos++;
+        }
+        if (digits == 0) throw new IOException("Inteiro esperado em " + where());
+        return negative ? -value : value;
+    }
+
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Decimal no formato [-]ddd[.ddd][e[+-]dd]. Caminho rápido: mantissa inteira exata (<= 15 dígitos)
+    // dividida/multiplicada por 10^k exato, o que dá o mesmo double que Double.parseDouble.
+    private double readDouble() throws IOException {
+        if (!skipBlank()) throw new EOFException("Fim de arquivo inesperado em " + where());
+        tokenLength = 0;
+        boolean negative = false;
+        if (buf[pos] == '-' || buf[pos] == '+') {
+            negative = buf[pos] == '-';
+            keep(buf[pos++]);
+        }
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean dot = false;
+        boolean any = false;
+        int exponent = 0;
+
+        while (pos < limit || fill()) {
+            byte b = buf[pos];
+            if (b >= '0' && b <= '9') {
+                any = true;
+                if (mantissa != 0 || b != '0') significant++;
+                mantissa = mantissa * 10 + (b - '0');
+                if (dot) scale++;
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else if ((b == 'e' || b == 'E') && any) {
+                keep(b);
+                pos++;
+                exponent = (int) readExponent();
+                break;
+            } else {
+                break;
+            }
+            keep(b);
+            pos++;
+        }
+        if (!any) throw new IOException("Número esperado em " + where());
+
+        int k = exponent - scale;
+        if (significant <= 15 && k >= -22 && k <= 22) {
+            double v = k < 0 ? mantissa / POW10[-k] : mantissa * POW10[k];
+            return negative ? -v : v;
+        }
+        String text = new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Número inválido em " + where() + ": " + text);
+        }
+    }
+
+    private long readExponent() throws IOException {
+        if (pos == limit && !fill()) throw new IOException("Expoente esperado em " + where());
+        boolean negative = false;
+        if (buf[pos] == '-' || buf[pos] == '+') {
+            negative = buf[pos] == '-';
+            keep(buf[pos++]);
+        }
+        long value = 0;
+        while (pos < limit || fill()) {
+            byte b = buf[pos];
+            if (b < '0' || b > '9') break;
+            value = value * 10 + (b - '0');
+            keep(b);
+            pos++;
+        }
+        return negative ? -value : value;
+    }
+
+    private void keep(byte b) {
+        if (tokenLength == token.length) token = Arrays.copyOf(token, 2 * token.length);
+        token[tokenLength++] = b;
+    }
+
+    private String where() {
+        return name + ", linha " + line;
+    }
+}
@@ -0,0 +1,237 @@
+import java.util.*;
+
+// Solver exato do PCMRC por label-setting (rótulos de Pareto em custo x recurso).
+// Rótulos saem do heap em ordem crescente de custo, então um rótulo em v é dominado
+// exatamente quando o recurso dele não é menor que o do último rótulo já fixado em v.
+// Com limites inferiores até o destino (LowerBounds: Dijkstra reverso exato ou landmarks) a chave do
+// heap vira custo + limite de custo de v (A*) e rótulos que não cabem em R nem somando o limite de
+// recurso são podados na criação. O limite de custo precisa ser consistente (h(u) <= c(u,v) + h(v),
+// o que vale para os dois), não só admissível: a ordem de saída do heap e a dominância acima contam
+// com isso.
+// Com K > 1 recursos a fronteira não colapsa num número por nó: ver solveMulti.
+// Assume custos e recursos não negativos (como em todas as instâncias geradas).
+public class LabelSettingSolver {
+    Graph g;
+    int source, target;
+    double R;
+    // K > 1: limite do recurso k em extraLimits[k - 1] (null = recursos extras sem limite)
+    double[] extraLimits;
+
+    // Limite de rótulos criados para não estourar memória em instâncias enormes.
+    int maxLabels = 20_000_000;
+
+    public long labelsCreated = 0;
+    public long labelsSettled = 0;
+    public boolean optimal = false;      // true se a busca terminou (ótimo provado ou inviabilidade provada)
+    public boolean limitReached = false;
+
+    // Pool de rótulos em vetores primitivos: rótulo l = (labelNode[l], labelCost[l], labelRes[l], labelPred[l]).
+    private int[] labelNode;
+    private int[] labelPred;
+    private double[] labelCost;
+    private double[] labelRes;
+    private int labelCount;
+    // Só com K > 1: recursos extras por coluna (labelExtra[k - 1][l]) e a lista encadeada dos rótulos
+    // já fixados em cada nó (settledHead[v] -> settledNext[l] -> ... -> -1).
+    private double[][] labelExtra;
+    private int[] settledNext;
+
+    LowerBounds bounds;
+
+    public LabelSettingSolver(Graph g, int source, int target, double R) {
+        this(g, source, target, R, null);
+    }
+
+    public LabelSettingSolver(Graph g, int source, int target, double R, LowerBounds bounds) {
+        this(g, source, target, R, null, bounds);
+    }
+
+    public LabelSettingSolver(Graph g, int source, int target, double R, double[] extraLimits, LowerBounds bounds) {
+        this.g = g;
+        this.source = source;
+        this.target = target;
+        this.R = R;
+        this.extraLimits = extraLimits;
+        g.build();
+        this.bounds = bounds != null ? bounds : LowerBounds.forTarget(g, target);
+    }
+
+    public Solution solve() {
+        reset();
+        if (g.extraResource != null) return solveMulti();
+
+        // Menor recurso entre os rótulos já fixados em cada nó (fronteira de Pareto colapsada).
+        double[] settledRes = new double[g.n];
+        Arrays.fill(settledRes, Double.POSITIVE_INFINITY);
+
+        MinHeap heap = new MinHeap(labelNode.length);
+        if (bounds.resource(source) <= R) {
+            heap.push(newLabel(source, 0, 0, -1), bounds.cost(source));
+        }
+
+        while (!heap.isEmpty()) {
+            int l = heap.pop();
+            int v = labelNode[l];
+            double res = labelRes[l];
+            if (res >= settledRes[v]) continue; // dominado
+
+            settledRes[v] = res;
+            labelsSettled++;
+
+            if (v == target) {
+                optimal = true;
+                return buildSolution(l);
+            }
+
+            double cost = labelCost[l];
+            for (int a = g.offsets[v]; a < g.offsets[v + 1]; a++) {
+                int w = g.targets[a];
+                double nr = res + g.resource[a];
+                if (nr >= settledRes[w] || nr + bounds.resource(w) > R) continue;
+
+                if (labelCount == maxLabels) {
+                    limitReached = true;
+                    return buildSolution(-1);
+                }
+                double nc = cost + g.cost[a];
+                heap.push(newLabel(w, nc, nr, l), nc + bounds.cost(w));
+            }
+        }
+
+        // Nenhum rótulo chegou ao destino: instância inviável para este R.
+        optimal = true;
+        return buildSolution(-1);
+    }
+
+    private void reset() {
+        int capacity = Math.max(16, g.n);
+        labelNode = new int[capacity];
+        labelPred = new int[capacity];
+        labelCost = new double[capacity];
+        labelRes = new double[capacity];
+        labelExtra = null;
+        settledNext = null;
+        if (g.extraResource != null) {
+            labelExtra = new double[g.extraResource.length][capacity];
+            settledNext = new int[capacity];
+        }
+        labelCount = 0;
+        labelsCreated = 0;
+        labelsSettled = 0;
+        optimal = false;
+        limitReached = false;
+    }
+
+    // K > 1: mesma busca, mas a dominância compara os K recursos. Rótulos do mesmo nó saem do heap em
+    // ordem de custo, então um rótulo é dominado se algum já fixado no nó não gasta mais em nenhum recurso.
+    // A poda na criação usa os limites do Dijkstra reverso de cada recurso (LowerBounds.resource(k, v)).
+    private Solution solveMulti() {
+        int extras = g.extraResource.length;
+        double[] limits = new double[extras];
+        for (int k = 0; k < extras; k++) limits[k] = extraLimits != null ? extraLimits[k] : Double.POSITIVE_INFINITY;
+
+        int[] settledHead = new int[g.n];
+        Arrays.fill(settledHead, -1);
+        double[] x = new double[extras];
+
+        MinHeap heap = new MinHeap(labelNode.length);
+        boolean fits = bounds.resource(source) <= R;
+        for (int k = 0; k < extras; k++) fits &= bounds.resource(k + 1, source) <= limits[k];
+        if (fits) {
+            heap.push(newLabel(source, 0, 0, -1), bounds.cost(source));
+        }
+
+        while (!heap.isEmpty()) {
+            int l = heap.pop();
+            int v = labelNode[l];
+            double res = labelRes[l];
+            for (int k = 0; k < extras; k++) x[k] = labelExtra[k][l];
+            if (dominated(settledHead[v], res, x)) continue;
+
+            settledNext[l] = settledHead[v];
+            settledHead[v] = l;
+            labelsSettled++;
+
+            if (v == target) {
+                optimal = true;
+                return buildSolution(l);
+            }
+
+            double cost = labelCost[l];
+            for (int a = g.offsets[v]; a < g.offsets[v + 1]; a++) {
+                int w = g.targets[a];
+                double nr = res + g.resource[a];
+                if (nr + bounds.resource(w) > R) continue;
+                fits = true;
+                for (int k = 0; k < extras && fits; k++) {
+                    x[k] = labelExtra[k][l] + g.extraResource[k][a];
+                    fits = x[k] + bounds.resource(k + 1, w) <= limits[k];
+                }
+                if (!fits || dominated(settledHead[w], nr, x)) continue;
+
+                if (labelCount == maxLabels) {
+                    limitReached = true;
+                    return buildSolution(-1);
+                }
+                double nc = cost + g.cost[a];
+                int nl = newLabel(w, nc, nr, l);
+                for (int k = 0; k < extras; k++) labelExtra[k][nl] = x[k];
+                heap.push(nl, nc + bounds.cost(w));
+            }
+        }
+
+        optimal = true;
+        return buildSolution(-1);
+    }
+
+    // Algum rótulo da lista gasta no máximo (res, x) em todos os recursos?
+    private boolean dominated(int head, double res, double[] x) {
+        for (int p = head; p >= 0; p = settledNext[p]) {
+            if (labelRes[p] > res) continue;
+            boolean all = true;
+            for (int k = 0; k < x.length && all; k++) all = labelExtra[k][p] <= x[k];
+            if (all) return true;
+        }
+        return false;
+    }
+
+    private int newLabel(int node, double cost, double res, int pred) {
+        if (labelCount == labelNode.length) {
+            int cap = labelCount * 2;
+            labelNode = Arrays.copyOf(labelNode, cap);
+            labelPred = Arrays.copyOf(labelPred, cap);
+            labelCost = Arrays.copyOf(labelCost, cap);
+            labelRes = Arrays.copyOf(labelRes, cap);
+            if (labelExtra != null) {
+                for (int k = 0; k < labelExtra.length; k++) labelExtra[k] = Arrays.copyOf(labelExtra[k], cap);
+                settledNext = Arrays.copyOf(settledNext, cap);
+            }
+        }
+        int l = labelCount++;
+        labelNode[l] = node;
+        labelCost[l] = cost;
+        labelRes[l] = res;
+        labelPred[l] = pred;
+        labelsCreated++;
+        return l;
+    }
+
+    // Refaz o caminho pelos predecessores. Sem rótulo no destino devolve só a origem (como o SA).
+    private Solution buildSolution(int l) {
+        Solution s;
+        if (l < 0) {
+            s = new Solution(1);
+            s.add(source);
+        } else {
+            int len = 0;
+            for (int k = l; k >= 0; k = labelPred[k]) len++;
+            s = new Solution(len);
+            s.length = len;
+            for (int k = l, i = len - 1; k >= 0; k = labelPred[k], i--) {
+                s.path[i] = labelNode[k];
+            }
+        }
+        s.evaluate(g, R, extraLimits, 100.0, target);
+        return s;
+    }
+}
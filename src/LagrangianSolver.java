@@ -0,0 +1,114 @@
+import java.util.*;
+
+// Relaxação Lagrangiana do PCMRC: L(lambda) = min_p [ c(p) + lambda * (r(p) - R) ].
+// Cada L(lambda) é um Dijkstra no peso c + lambda * r. O lambda é atualizado pela busca
+// geométrica clássica (interseção das retas do melhor caminho viável e do melhor inviável),
+// que é a bisseção exata do dual unidimensional e converge em poucas iterações.
+// Produz um limite inferior (lowerBound) e o melhor caminho viável encontrado (upper bound).
+// Com K > 1 recursos só o recurso 0 é dualizado e os demais são ignorados na relaxação (o limite
+// inferior continua válido); os candidatos só contam como viáveis se respeitarem todos os limites.
+// Se o grafo tem landmarks (ver LowerBounds.forTarget) os subproblemas viram A* com potencial ALT no
+// mesmo peso combinado: mesmo valor de L(lambda), fixando só parte dos nós.
+public class LagrangianSolver {
+    Graph g;
+    int source, target;
+    double R;
+    double[] extraLimits; // limites dos recursos 1..K-1 (null = sem limites extras)
+
+    int maxIterations = 100;
+    double epsilon = 1e-9;
+
+    public double lowerBound = Double.NEGATIVE_INFINITY;
+    public double lambda = 0;
+    public int iterations = 0;
+    public boolean feasible = false;
+
+    public LagrangianSolver(Graph g, int source, int target, double R) {
+        this.g = g;
+        this.source = source;
+        this.target = target;
+        this.R = R;
+        g.build();
+    }
+
+    private Dijkstra sp;
+    private AStar astar;
+
+    public Solution solve() {
+        if (g.hasLandmarks()) astar = new AStar(g, g.landmarks());
+        else sp = new Dijkstra(g);
+        lowerBound = Double.NEGATIVE_INFINITY;
+        lambda = 0;
+        iterations = 1;
+        feasible = false;
+
+        // lambda = 0: caminho mais barato. Se já respeita R, é ótimo.
+        Solution cheap = shortestPath(1, 0);
+        if (!cheap.reachesTarget) {
+            lowerBound = Double.POSITIVE_INFINITY;
+            return cheap;
+        }
+        lowerBound = cheap.cost;
+        if (cheap.withinLimits(R, extraLimits)) {
+            feasible = true;
+            return cheap;
+        }
+        // Só um recurso extra estoura: o multiplicador do recurso 0 não tem o que melhorar.
+        if (cheap.resource <= R) return cheap;
+
+        // Menor recurso possível (custo só desempata). Se nem ele cabe em R, não há solução.
+        iterations++;
+        Solution frugal = shortestPath(1e-9, 1);
+        if (frugal.resource > R) {
+            lowerBound = Double.POSITIVE_INFINITY;
+            return frugal;
+        }
+        Solution best = frugal.withinLimits(R, extraLimits) ? frugal : null;
+
+        while (iterations < maxIterations) {
+            double dr = cheap.resource - frugal.resource;
+            if (dr <= epsilon) break;
+            lambda = (frugal.cost - cheap.cost) / dr;
+
+            iterations++;
+            Solution p = shortestPath(1, lambda);
+            double value = p.cost + lambda * (p.resource - R);
+            lowerBound = Math.max(lowerBound, value);
+
+            if (p.withinLimits(R, extraLimits) && (best == null || p.cost < best.cost)) best = p;
+
+            // Nenhum caminho abaixo da reta entre 'cheap' e 'frugal': lambda é ótimo para o dual.
+            double line = cheap.cost + lambda * (cheap.resource - R);
+            if (value >= line - epsilon * Math.max(1, Math.abs(line))) break;
+
+            if (p.resource <= R) frugal = p;
+            else cheap = p;
+        }
+        if (best == null) return frugal;
+        feasible = true;
+        // Arredondamento pode deixar o LB um fio acima do UB.
+        lowerBound = Math.min(lowerBound, best.cost);
+        return best;
+    }
+
+    // (UB - LB) / UB em porcentagem; 0 quando o ótimo foi provado.
+    public double gapPercent(Solution best) {
+        if (!feasible || best.cost <= 0) return 0;
+        return (best.cost - lowerBound) / best.cost * 100.0;
+    }
+
+    private Solution shortestPath(double wCost, double wRes) {
+        Solution s = new Solution(16);
+        boolean found;
+        if (astar != null) {
+            astar.run(source, target, wCost, wRes);
+            found = astar.pathTo(target, s);
+        } else {
+            sp.run(source, target, wCost, wRes);
+            found = sp.pathTo(target, s);
+        }
+        if (!found) s.add(source);
+        s.evaluate(g, R, extraLimits, 100.0, target);
+        return s;
+    }
+}
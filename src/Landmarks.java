@@ -0,0 +1,165 @@
+import java.util.*;
+
+// Landmarks (ALT): distâncias de e para alguns nós escolhidos, calculadas uma vez por grafo.
+// Pela desigualdade triangular, para quaisquer v e t:
+//     d(v, t) >= d(L, t) - d(L, v)   e   d(v, t) >= d(v, L) - d(t, L)
+// então o máximo sobre os landmarks é um limite inferior de v até qualquer destino. É o potencial
+// do AStar e da construção bidirecional (ver BidirectionalConstructor), sem o Dijkstra reverso por
+// destino que TargetBounds precisa (toward dá a mesma visão por destino para os solvers). Tabelas em
+// custo e em recurso (recurso 0): 4 * count * n doubles (8 landmarks em 1M de nós = 256 MB). Podem
+// ser pré-processadas uma vez e gravadas no snapshot (GraphSnapshot --landmarks=K).
+public class Landmarks {
+    static final int COST = 0, RESOURCE = 1;
+    static final int DEFAULT_COUNT = 8;
+
+    final int[] nodes;
+    // from[metric][v * count + l] = d(nodes[l], v), to[metric][v * count + l] = d(v, nodes[l])
+    // (+infinito sem caminho). Intercalado por nó: um limite lê poucas linhas de cache.
+    final double[][] from;
+    final double[][] to;
+
+    // Escolha "mais distante": o primeiro é sorteado; cada seguinte é o nó mais longe (ida + volta em
+    // custo) dos já escolhidos. Nó fora do alcance de todos eles tem prioridade (outra componente).
+    public Landmarks(Graph g, int count, long seed) {
+        g.build();
+        count = Math.max(1, Math.min(count, g.n));
+        Dijkstra forward = new Dijkstra(g);
+        Graph rg = g.reverse();
+        Dijkstra backward = new Dijkstra(rg);
+        int[] chosen = new int[count];
+        double[][][] f = new double[2][count][];
+        double[][][] b = new double[2][count][];
+        double[] score = new double[g.n];
+        Arrays.fill(score, Double.POSITIVE_INFINITY);
+
+        int next = new SplittableRandom(seed).nextInt(g.n);
+        int k = 0;
+        while (k < count) {
+            chosen[k] = next;
+            for (int metric = COST; metric <= RESOURCE; metric++) {
+                double wCost = metric == COST ? 1 : 0;
+                f[metric][k] = table(forward, next, wCost, 1 - wCost);
+                b[metric][k] = table(backward, next, wCost, 1 - wCost);
+            }
+            k++;
+
+            next = -1;
+            double farthest = 0;
+            for (int v = 0; v < g.n; v++) {
+                double there = f[COST][k - 1][v], back = b[COST][k - 1][v];
+                double s = there == Double.POSITIVE_INFINITY && back == Double.POSITIVE_INFINITY
+                        ? Double.POSITIVE_INFINITY
+                        : (there < Double.POSITIVE_INFINITY ? there : 0)
+                                + (back < Double.POSITIVE_INFINITY ? back : 0);
+                score[v] = Math.min(score[v], s);
+                if (g.degree(v) == 0 && rg.degree(v) == 0) continue; // isolado: não ajuda ninguém
+                if (score[v] > farthest) {
+                    farthest = score[v];
+                    next = v;
+                }
+            }
+            if (next < 0) break; // todos os nós já são landmarks (ou grafo sem arcos)
+        }
+        nodes = Arrays.copyOf(chosen, k);
+        from = new double[2][];
+        to = new double[2][];
+        for (int metric = COST; metric <= RESOURCE; metric++) {
+            from[metric] = interleave(f[metric], k, g.n);
+            to[metric] = interleave(b[metric], k, g.n);
+        }
+    }
+
+    // Tabelas já prontas (lidas do snapshot), no mesmo layout dos campos.
+    Landmarks(int[] nodes, double[][] from, double[][] to) {
+        this.nodes = nodes;
+        this.from = from;
+        this.to = to;
+    }
+
+    private static double[] interleave(double[][] tables, int k, int n) {
+        double[] out = new double[n * k];
+        for (int l = 0; l < k; l++) {
+            double[] d = tables[l];
+            tables[l] = null; // libera cada tabela assim que é copiada
+            for (int v = 0; v < n; v++) out[v * k + l] = d[v];
+        }
+        return out;
+    }
+
+    private static double[] table(Dijkstra sp, int s, double wCost, double wRes) {
+        sp.run(s, -1, wCost, wRes);
+        double[] d = new double[sp.g.n];
+        for (int v = 0; v < d.length; v++) d[v] = sp.distance(v);
+        return d;
+    }
+
+    public int count() {
+        return nodes.length;
+    }
+
+    // Memória das tabelas (o int[] dos nós fica de fora).
+    public long bytes() {
+        return 4L * from[COST].length * Double.BYTES;
+    }
+
+    // Limite inferior de d(v, t) na métrica (COST ou RESOURCE); +infinito se algum landmark prova
+    // que v não alcança t (L alcança v mas não t, ou t alcança L mas v não).
+    public double lowerBound(int metric, int v, int t) {
+        if (v == t) return 0;
+        double[] f = from[metric];
+        double[] b = to[metric];
+        int k = nodes.length;
+        int iv = v * k, it = t * k;
+        double best = 0;
+        for (int l = 0; l < k; l++) {
+            double lv = f[iv + l];
+            if (lv < Double.POSITIVE_INFINITY) {
+                double lt = f[it + l];
+                if (lt == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+                best = Math.max(best, lt - lv);
+            }
+            double tl = b[it + l];
+            if (tl < Double.POSITIVE_INFINITY) {
+                double vl = b[iv + l];
+                if (vl == Double.POSITIVE_INFINITY) return Double.POSITIVE_INFINITY;
+                best = Math.max(best, vl - tl);
+            }
+        }
+        return best;
+    }
+
+    // Limite do peso combinado wCost * custo + wRes * recurso (pesos >= 0).
+    public double lowerBound(int v, int t, double wCost, double wRes) {
+        double c = wCost > 0 ? lowerBound(COST, v, t) : 0;
+        if (c == Double.POSITIVE_INFINITY) return c;
+        double r = wRes > 0 ? lowerBound(RESOURCE, v, t) : 0;
+        return wCost * c + wRes * r;
+    }
+
+    // Limites até um destino fixo como LowerBounds, sem Dijkstra reverso: cada consulta custa
+    // O(count). Recursos k > 0 não têm tabela: limite 0 (ou +infinito se v não alcança t).
+    public LowerBounds toward(int target) {
+        return new LowerBounds() {
+            @Override
+            public int target() {
+                return target;
+            }
+
+            @Override
+            public double cost(int v) {
+                return lowerBound(COST, v, target);
+            }
+
+            @Override
+            public double resource(int v) {
+                return lowerBound(RESOURCE, v, target);
+            }
+
+            @Override
+            public double resource(int k, int v) {
+                if (k == 0) return resource(v);
+                return reaches(v) ? 0 : Double.POSITIVE_INFINITY;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+// Conjunto de long com endereçamento aberto (sondagem linear), sem boxing.
+// Usado para deduplicar arcos pela chave (u << 32 | v) sem criar Strings nem Longs.
+public class LongHashSet {
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int size = 0;
+    private boolean hasZero = false; // a chave 0 é o marcador de vazio: guardada à parte
+
+    public LongHashSet(int expected) {
+        int cap = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[cap];
+    }
+
+    public static long key(int u, int v) {
+        return ((long) u << 32) | (v & 0xffffffffL);
+    }
+
+    // Retorna false se já estava no conjunto.
+    public boolean add(long k) {
+        if (k == EMPTY) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int mask = keys.length - 1;
+        int i = hash(k) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == k) return false;
+            i = (i + 1) & mask;
+        }
+        keys[i] = k;
+        if (++size * 2 > keys.length) rehash();
+        return true;
+    }
+
+    public boolean contains(long k) {
+        if (k == EMPTY) return hasZero;
+        int mask = keys.length - 1;
+        int i = hash(k) & mask;
+        while (keys[i] != EMPTY) {
+            if (keys[i] == k) return true;
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        int mask = keys.length - 1;
+        for (long k : old) {
+            if (k == EMPTY) continue;
+            int i = hash(k) & mask;
+            while (keys[i] != EMPTY) i = (i + 1) & mask;
+            keys[i] = k;
+        }
+    }
+
+    private static int hash(long k) {
+        return (int) Seeds.mix(k);
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashSet[size=" + size + ", capacity=" + keys.length + "]";
+    }
+}
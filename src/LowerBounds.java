@@ -0,0 +1,29 @@
+// Limites inferiores de custo e de recurso de cada nó até o destino de uma consulta (+infinito se o
+// nó não alcança o destino). Os solvers só consultam esta interface: o label-setting na chave do heap
+// e na poda por recurso, a construção do SA (becos sem saída, arcos que cabem em R, modo guiado).
+//   TargetBounds     exatos, mas um Dijkstra reverso por destino (e por recurso) antes da consulta;
+//   Landmarks.toward ALT, sem trabalho prévio por consulta (O(landmarks) por nó consultado), mais fracos.
+// forTarget escolhe: com landmarks no grafo (pré-processados e gravados no snapshot, ou já calculados)
+// a consulta não paga o Dijkstra reverso. É o padrão do label-setting; o SA continua com o exato (ver
+// SimulatedAnnealing.bounds). Com K > 1 também fica o exato: os landmarks não têm tabela dos recursos
+// extras e, sem essa poda, o label-setting multi-recurso explode em rótulos.
+public interface LowerBounds {
+    int target();
+
+    double cost(int v);
+
+    // Recurso 0.
+    double resource(int v);
+
+    // Recurso k (0 <= k < K).
+    double resource(int k, int v);
+
+    default boolean reaches(int v) {
+        return resource(v) < Double.POSITIVE_INFINITY;
+    }
+
+    static LowerBounds forTarget(Graph g, int target) {
+        if (g.hasLandmarks() && g.extraResource == null) return g.landmarks().toward(target);
+        return new TargetBounds(g, target);
+    }
+}
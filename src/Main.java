@@ -10,33 +10,35 @@ public class Main {
             { 200, 1000, "inst_muito_grande.txt" }
     };
 
+    // Estratégia usada em todas as instâncias (Solver.byName)
+    static String solverName = "sa";
+    static boolean bidirectional = false;
+
     static class ResultData {
         String instanceName = "Desconhecido";
+        long seed;
         int nodes = 0;
-        double initialCost = 0.0;
+        double initialCost = Double.NaN; // só o SA informa
         double cost = 0.0;
         double resource = 0.0;
         long timeMs = 0;
-        int iterations = 0;
+        long iterations = 0;
         boolean isFeasible = false;
     }
 
-    static class Edge {
-        int to;
-        double cost;
-        double resource;
-
-        public Edge(int to, double cost, double resource) {
-            this.to = to;
-            this.cost = cost;
-            this.resource = resource;
-        }
-    }
-
+    // Uso: java Main [--seed=N] [--solver=sa|exact|lagrangian|parallel|memetic] [--bidirecional]
+    // (mesma semente => mesmas instâncias e mesmo relatório)
     public static void main(String[] args) throws Exception {
         System.out.println(">>> GERANDO RELATORIO AUTOMATIZADO COM COMPARATIVO <<<");
+        long seed = Seeds.fromArgs(args);
+        for (String arg : args) {
+            if (arg.startsWith("--solver=")) solverName = arg.substring("--solver=".length());
+            else if (arg.equals("--bidirecional")) bidirectional = true;
+        }
+        Solver.byName(solverName, new Solver.Options()); // nome inválido falha antes de gerar as instâncias
+        System.out.println("Semente: " + seed + "  Solver: " + solverName);
 
-        generateAllInstances();
+        generateAllInstances(seed);
 
         List<ResultData> results = new ArrayList<>();
 
@@ -45,60 +47,42 @@ public class Main {
             int expectedNodes = (int) cfg[0];
 
             System.out.print("Processando: " + filename + "... ");
-            ResultData res = runSingleTest(filename, expectedNodes);
+            ResultData res = runSingleTest(filename, expectedNodes, Seeds.derive(seed, "sa:" + cfg[2]));
             results.add(res);
 
             String status = res.isFeasible ? "OK" : "Inviável";
-            System.out.println(status + " (Inicial: " + String.format("%.2f", res.initialCost) + " -> Final: "
-                    + String.format("%.2f", res.cost) + ")");
+            System.out.println(status + " (Inicial: " + formatCost(res.initialCost) + " -> Final: "
+                    + formatCost(res.cost) + ")");
         }
 
-        generateReportFile(results);
+        generateReportFile(results, seed);
 
         System.out.println("\n>>> SUCESSO! Abra o arquivo 'RELATORIO_FINAL.txt' <<<");
     }
 
-    public static ResultData runSingleTest(String filePath, int expectedNodes) {
+    public static ResultData runSingleTest(String filePath, int expectedNodes, long seed) {
         ResultData res = new ResultData();
         File f = new File(filePath);
         res.instanceName = f.getName();
         res.nodes = expectedNodes;
+        res.seed = seed;
 
         try {
-            if (!f.exists())
-                throw new FileNotFoundException("Arquivo nao encontrado: " + filePath);
-
-            Scanner sc = new Scanner(f);
-            sc.useLocale(Locale.US);
-
-            if (!sc.hasNext()) {
-                sc.close();
-                throw new RuntimeException("Arquivo vazio");
-            }
-
-            int n = sc.nextInt();
-            int m = sc.nextInt();
-            int source = sc.nextInt();
-            int target = sc.nextInt();
-            double maxResource = sc.nextDouble();
-
-            List<List<Edge>> graph = new ArrayList<>();
-            for (int i = 0; i < n; i++) {
-                graph.add(new ArrayList<>());
-            }
-
-            for (int i = 0; i < m; i++) {
-                int u = sc.nextInt();
-                int v = sc.nextInt();
-                double c = sc.nextDouble();
-                double r = sc.nextDouble();
-                if (u >= 0 && u < n) {
-                    graph.get(u).add(new Edge(v, c, r));
-                }
-            }
-            sc.close();
-
-            solveWithSimulatedAnnealing(res, graph, source, target, maxResource, n);
+            Instance inst = InstanceLoader.load(filePath);
+
+            Solver.Options options = new Solver.Options();
+            options.seed = seed;
+            options.budgetMillis = 2000;
+            options.bidirectional = bidirectional;
+            options.label = res.instanceName;
+            Solver.Result r = Solver.byName(solverName, options).solve(inst);
+
+            res.initialCost = r.initialCost;
+            res.cost = r.best.cost;
+            res.resource = r.best.resource;
+            res.timeMs = r.timeMs;
+            res.iterations = r.iterations;
+            res.isFeasible = r.feasible(inst);
 
         } catch (Exception e) {
             System.out.println("\n[ERRO] Falha ao processar " + filePath + ": " + e);
@@ -107,187 +91,7 @@ public class Main {
         return res;
     }
 
-    private static void solveWithSimulatedAnnealing(ResultData res, List<List<Edge>> graph, int start, int end,
-            double maxR, int n) {
-        long startTime = System.currentTimeMillis();
-        long timeLimit = 2000;
-        Random rand = new Random();
-
-        double temperature = 1000.0;
-        double coolingRate = 0.90;
-        double minTemperature = 0.1;
-        int maxIterationsPerTemp = 50;
-
-        // Gera solução inicial (Aleatória)
-        List<Integer> currentPath = generateRandomPath(graph, start, end, rand, new boolean[n]);
-
-        if (currentPath.isEmpty()) {
-            res.cost = Double.MAX_VALUE;
-            res.initialCost = Double.MAX_VALUE;
-            res.isFeasible = false;
-            return;
-        }
-
-        // Salva o custo da solução inicial ANTES de otimizar
-        res.initialCost = calculateRealCost(currentPath, graph);
-
-        double currentEnergy = calculateEnergy(currentPath, graph, maxR);
-
-        List<Integer> bestPath = new ArrayList<>(currentPath);
-        double bestEnergy = currentEnergy;
-        double bestRealCost = res.initialCost;
-        double bestRealResource = calculateRealResource(bestPath, graph);
-
-        int totalIterations = 0;
-
-        // Loop de Otimização (Simulated Annealing)
-        while (temperature > minTemperature) {
-
-            if (System.currentTimeMillis() - startTime > timeLimit)
-                break;
-
-            for (int i = 0; i < maxIterationsPerTemp; i++) {
-                totalIterations++;
-
-                List<Integer> neighborPath = generateNeighbor(currentPath, graph, start, end, rand);
-                if (neighborPath.isEmpty())
-                    continue;
-
-                double neighborEnergy = calculateEnergy(neighborPath, graph, maxR);
-                double delta = neighborEnergy - currentEnergy;
-
-                if (delta < 0 || Math.exp(-delta / temperature) > rand.nextDouble()) {
-                    currentPath = neighborPath;
-                    currentEnergy = neighborEnergy;
-
-                    if (currentEnergy < bestEnergy) {
-                        bestPath = new ArrayList<>(currentPath);
-                        bestEnergy = currentEnergy;
-                        bestRealCost = calculateRealCost(bestPath, graph);
-                        bestRealResource = calculateRealResource(bestPath, graph);
-                    }
-                }
-            }
-            temperature *= coolingRate;
-        }
-
-        long endTime = System.currentTimeMillis();
-
-        res.timeMs = (endTime - startTime);
-        res.iterations = totalIterations;
-        res.cost = bestRealCost;
-        res.resource = bestRealResource;
-        res.isFeasible = (bestRealResource <= maxR);
-    }
-
-    private static double calculateEnergy(List<Integer> path, List<List<Edge>> graph, double maxR) {
-        double cost = 0;
-        double resource = 0;
-
-        for (int i = 0; i < path.size() - 1; i++) {
-            int u = path.get(i);
-            int v = path.get(i + 1);
-            for (Edge e : graph.get(u)) {
-                if (e.to == v) {
-                    cost += e.cost;
-                    resource += e.resource;
-                    break;
-                }
-            }
-        }
-
-        double penalty = 0;
-        if (resource > maxR) {
-            penalty = (resource - maxR) * 100.0;
-        }
-
-        return cost + penalty;
-    }
-
-    private static double calculateRealCost(List<Integer> path, List<List<Edge>> graph) {
-        double cost = 0;
-        for (int i = 0; i < path.size() - 1; i++) {
-            int u = path.get(i);
-            int v = path.get(i + 1);
-            for (Edge e : graph.get(u)) {
-                if (e.to == v) {
-                    cost += e.cost;
-                    break;
-                }
-            }
-        }
-        return cost;
-    }
-
-    private static double calculateRealResource(List<Integer> path, List<List<Edge>> graph) {
-        double res = 0;
-        for (int i = 0; i < path.size() - 1; i++) {
-            int u = path.get(i);
-            int v = path.get(i + 1);
-            for (Edge e : graph.get(u)) {
-                if (e.to == v) {
-                    res += e.resource;
-                    break;
-                }
-            }
-        }
-        return res;
-    }
-
-    private static List<Integer> generateRandomPath(List<List<Edge>> graph, int curr, int target, Random rand,
-            boolean[] visited) {
-        List<Integer> path = new ArrayList<>();
-        path.add(curr);
-
-        if (curr == target)
-            return path;
-
-        visited[curr] = true;
-
-        List<Edge> neighbors = new ArrayList<>(graph.get(curr));
-        Collections.shuffle(neighbors, rand);
-
-        for (Edge e : neighbors) {
-            if (!visited[e.to]) {
-                List<Integer> subPath = generateRandomPath(graph, e.to, target, rand, visited);
-                if (!subPath.isEmpty()) {
-                    path.addAll(subPath);
-                    return path;
-                }
-            }
-        }
-
-        return new ArrayList<>();
-    }
-
-    private static List<Integer> generateNeighbor(List<Integer> currentPath, List<List<Edge>> graph, int start,
-            int target, Random rand) {
-        if (currentPath.size() <= 2)
-            return new ArrayList<>();
-
-        int cutIndex = 1 + rand.nextInt(currentPath.size() - 2);
-        int u = currentPath.get(cutIndex - 1);
-
-        boolean[] visited = new boolean[graph.size()];
-        List<Integer> newPath = new ArrayList<>();
-
-        for (int i = 0; i < cutIndex; i++) {
-            newPath.add(currentPath.get(i));
-            visited[currentPath.get(i)] = true;
-        }
-
-        List<Integer> tail = generateRandomPath(graph, u, target, rand, visited);
-
-        if (tail.isEmpty() || tail.size() == 1)
-            return new ArrayList<>();
-
-        tail.remove(0);
-        newPath.addAll(tail);
-
-        return newPath;
-    }
-
-    public static void generateReportFile(List<ResultData> results) throws IOException {
+    public static void generateReportFile(List<ResultData> results, long seed) throws IOException {
         PrintWriter out = new PrintWriter(new FileWriter("RELATORIO_FINAL.txt"));
 
         out.println("=======================================================================================");
@@ -298,36 +102,46 @@ public class Main {
         out.println("---------------------------------------------------------------------------------------");
         out.println("Para resolver a variante PCMRC (Problema do Caminho Mínimo com Restrição de Recursos),");
         out.println("foi implementada a meta-heurística Simulated Annealing (Têmpera Simulada).\n");
-        out.println("* Representação: Lista dinâmica de nós visitados.");
-        out.println("* Vizinhança: Estratégia Cut-and-Reconnect.");
-        out.println("* Critério de Parada: T_min = 0.1 ou TimeLimit = 2s.");
+        out.println("* Solver: " + solverName + " (outros com --solver=, disponíveis: " + Solver.names() + ").");
+        out.println("* Representação: Vetor de nós visitados, avaliado incrementalmente (só a cauda alterada).");
+        out.println("* Vizinhança: Operadores adaptativos (cauda, segmento, reparo, atalho, inserção).");
+        out.println("* Critério de Parada: Fim do resfriamento ou TimeLimit = 2s.");
+        out.println("* Semente: " + seed + " (reproduzir com: java Main --seed=" + seed
+                + (solverName.equals("sa") ? "" : " --solver=" + solverName) + ").");
+        out.println("  Com a mesma semente as instâncias e as buscas se repetem, salvo se o TimeLimit for atingido.");
         out.println("* Comparação: Os resultados da meta-heurística são comparados com a Solução Inicial");
         out.println("  (gerada aleatoriamente) para demonstrar a eficiência da otimização (GAP).\n");
 
         out.println("2. RESULTADOS EXPERIMENTAIS");
         out.println("---------------------------------------------------------------------------------------");
 
-        out.println("Nota: 'Inicial' é o custo da rota aleatória. 'Final' é o custo após o Simulated Annealing.");
-        out.println("'GAP' indica a porcentagem de redução de custo (melhoria) obtida.\n");
+        out.println("Nota: 'Inicial' é o custo da rota aleatória ('-' se o solver não partir de uma rota inicial).");
+        out.println("'Final' é o custo após o solver.");
+        out.println("'GAP' indica a porcentagem de redução de custo (melhoria) obtida ('-' sem rota inicial ou se a");
+        out.println("rota final é inviável).\n");
 
         String format = "| %-18s | %-4s | %-10s | %-10s | %-9s | %-9s | %-8s |%n";
-        out.printf(format, "Instância", "Nós", "Inicial", "Final(SA)", "GAP(%)", "Tempo(ms)", "Status");
+        out.printf(format, "Instância", "Nós", "Inicial", "Final", "GAP(%)", "Tempo(ms)", "Status");
         out.println("|" + "-".repeat(20) + "|" + "-".repeat(6) + "|" + "-".repeat(12) + "|" + "-".repeat(12) + "|"
                 + "-".repeat(11) + "|" + "-".repeat(11) + "|" + "-".repeat(10) + "|");
 
+        int withGap = 0, improved = 0;
         for (ResultData r : results) {
-            // Calcula a porcentagem de melhora
-            double gap = 0.0;
-            if (r.initialCost > 0) {
-                gap = (r.initialCost - r.cost) / r.initialCost * 100.0;
+            // Calcula a porcentagem de melhora (só para rotas finais viáveis)
+            String gap = "-";
+            if (r.isFeasible && r.initialCost > 0) {
+                double g = (r.initialCost - r.cost) / r.initialCost * 100.0;
+                gap = String.format(Locale.US, "%.2f%%", g);
+                withGap++;
+                if (g > 0) improved++;
             }
 
             out.printf(Locale.US, format,
                     r.instanceName,
                     r.nodes,
-                    r.initialCost,
-                    r.cost,
-                    String.format("%.2f%%", gap),
+                    formatCost(r.initialCost),
+                    formatCost(r.cost),
+                    gap,
                     r.timeMs,
                     r.isFeasible ? "Viável" : "Inviável");
         }
@@ -337,21 +151,32 @@ public class Main {
         if (!results.isEmpty()) {
             ResultData last = results.get(results.size() - 1);
             out.println("O algoritmo processou " + results.size() + " instâncias.");
-            out.println(
-                    "Foi observada uma melhoria consistente (GAP positivo) em relação à solução aleatória inicial.");
+            if (withGap == 0) {
+                out.println("Nenhuma instância tem GAP (solver sem rota inicial ou rotas finais inviáveis).");
+            } else if (improved == withGap) {
+                out.println("Foi observada melhoria (GAP positivo) em relação à solução aleatória inicial em todas as "
+                        + withGap + " instâncias com GAP.");
+            } else {
+                out.println("Houve melhoria (GAP positivo) em relação à solução aleatória inicial em " + improved
+                        + " de " + withGap + " instâncias com GAP.");
+            }
             out.println("Na maior instância (" + last.nodes + " nós), o tempo foi de " + last.timeMs + "ms.");
         }
 
         out.close();
     }
 
-    public static void generateAllInstances() throws IOException {
+    private static String formatCost(double c) {
+        return Double.isNaN(c) ? "-" : String.format(Locale.US, "%.2f", c);
+    }
+
+    public static void generateAllInstances(long seed) throws IOException {
         File dir = new File("instances");
         if (!dir.exists())
             dir.mkdirs();
-        Random rand = new Random();
 
         for (Object[] cfg : instancesConfig) {
+            Random rand = new Random(Seeds.derive(seed, "gerador:" + cfg[2]));
             int n = (int) cfg[0];
             int m = (int) cfg[1];
             String filename = "instances/" + (String) cfg[2];
@@ -0,0 +1,276 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+// Algoritmo memético: população de caminhos (genomas int[]) evoluída por cruzamento em nós comuns,
+// mutação pelo vizinho do SA (SimulatedAnnealing.neighbor) e busca local com rajadas curtas de SA.
+// Uma trajetória só de SA tende a parar numa bacia ruim nos grafos maiores; a população mantém
+// caminhos diferentes e o cruzamento junta trechos bons de dois deles.
+// Os filhos de cada geração são gerados em paralelo: o filho i fica sempre com o trabalhador
+// i % workers (cada um com seu SA, seu gerador e seus buffers), então a mesma semente dá o mesmo
+// resultado independentemente do escalonamento das threads.
+public class MemeticSolver {
+    Graph g;
+    int source, target;
+    double R;
+    double[] extraLimits; // K > 1 (ver SimulatedAnnealing.extraLimits)
+
+    int populationSize = 24;
+    int maxGenerations = 200;
+    int stallGenerations = 30;  // para após N gerações sem melhorar o melhor
+    int burstIterations = 500;  // iterações de SA por filho (busca local)
+    double mutationRate = 0.3;  // chance de mutar o filho antes da busca local
+    int workers = Runtime.getRuntime().availableProcessors();
+    long seed = new SplittableRandom().nextLong();
+    StoppingRules stop;         // prazo/cancelamento (null = só gerações e estagnação)
+    boolean bidirectional = false; // construção dos SAs (ver SimulatedAnnealing.bidirectional)
+    // Compartilhado pelos SAs dos trabalhadores (contadores somados em paralelo)
+    SolverMetrics metrics = new SolverMetrics();
+
+    public static class Result {
+        public Solution best;
+        public int generations;
+        public long offspring;
+        public long crossovers;   // filhos vindos de cruzamento (os demais são cópia do pai)
+        public long timeMs;
+        public SolverMetrics metrics;
+        public long seed;
+    }
+
+    private int[][] population;
+    private double[] fitness;
+
+    public MemeticSolver(Graph g, int source, int target, double R) {
+        this.g = g;
+        this.source = source;
+        this.target = target;
+        this.R = R;
+        g.build();
+    }
+
+    public Result run() throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        metrics.begin();
+        SplittableRandom rand = new SplittableRandom(seed);
+
+        TargetBounds bounds = new TargetBounds(g, target);
+        // Landmarks da construção bidirecional montados aqui, uma vez, e não por cada thread
+        if (bidirectional) g.landmarks();
+        Worker[] w = new Worker[Math.max(1, Math.min(workers, populationSize))];
+        for (int k = 0; k < w.length; k++) {
+            w[k] = new Worker(new SplittableRandom(Seeds.derive(seed, k)), bounds);
+        }
+
+        Result result = new Result();
+        ExecutorService pool = Executors.newFixedThreadPool(w.length);
+        try {
+            // População inicial: DFS aleatória + busca local
+            population = new int[populationSize][];
+            fitness = new double[populationSize];
+            int[][] parentA = new int[populationSize][];
+            int[][] parentB = new int[populationSize][];
+            evaluateAll(pool, w, parentA, parentB, population, fitness);
+
+            double best = bestFitness();
+            // Melhoras da população (a "iteração" das métricas é a geração)
+            if (best < Double.POSITIVE_INFINITY) metrics.recordImprovement(best, 0);
+            int stalled = 0;
+            int[][] children = new int[populationSize][];
+            double[] childFitness = new double[populationSize];
+            while (result.generations < maxGenerations && stalled < stallGenerations
+                    && (stop == null || !stop.expired())) {
+                // Pais por torneio binário, sorteados antes (fora das threads) para ser determinístico
+                for (int i = 0; i < populationSize; i++) {
+                    parentA[i] = population[tournament(rand)];
+                    parentB[i] = population[tournament(rand)];
+                }
+                evaluateAll(pool, w, parentA, parentB, children, childFitness);
+                replace(children, childFitness);
+                result.generations++;
+                result.offspring += populationSize;
+
+                double now = bestFitness();
+                if (now < best) {
+                    best = now;
+                    stalled = 0;
+                    metrics.recordImprovement(best, result.generations);
+                } else {
+                    stalled++;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int b = 0;
+        for (int i = 1; i < populationSize; i++) {
+            if (fitness[i] < fitness[b]) b = i;
+        }
+        result.best = w[0].evaluate(population[b]);
+        for (Worker k : w) result.crossovers += k.crossovers;
+        metrics.end();
+        result.metrics = metrics;
+        result.seed = seed;
+        result.timeMs = System.currentTimeMillis() - startTime;
+        return result;
+    }
+
+    // Filho i = busca local sobre cruzamento(a[i], b[i]) (ou sobre uma solução nova se a[i] == null).
+    private void evaluateAll(ExecutorService pool, Worker[] w, int[][] a, int[][] b, int[][] out,
+            double[] outFitness) throws InterruptedException {
+        List<Callable<Void>> tasks = new ArrayList<>(w.length);
+        for (int k = 0; k < w.length; k++) {
+            Worker worker = w[k];
+            int first = k;
+            tasks.add(() -> {
+                for (int i = first; i < out.length; i += w.length) {
+                    Solution s = worker.offspring(a[i], b[i]);
+                    out[i] = Arrays.copyOf(s.path, s.size());
+                    outFitness[i] = s.reachesTarget ? s.fitness : Double.POSITIVE_INFINITY;
+                }
+                return null;
+            });
+        }
+        for (Future<Void> f : pool.invokeAll(tasks)) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falha em um trabalhador do memético", e.getCause());
+            }
+        }
+    }
+
+    private int tournament(SplittableRandom rand) {
+        int i = rand.nextInt(populationSize);
+        int j = rand.nextInt(populationSize);
+        return fitness[i] <= fitness[j] ? i : j;
+    }
+
+    // (mu + lambda): fica com os melhores entre pais e filhos, sem repetir caminhos iguais
+    // (repetidos só entram se faltar gente).
+    private void replace(int[][] children, double[] childFitness) {
+        int total = populationSize * 2;
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble(i -> i < populationSize ? fitness[i]
+                : childFitness[i - populationSize]));
+
+        int[][] next = new int[populationSize][];
+        double[] nextFitness = new double[populationSize];
+        int count = 0;
+        boolean[] taken = new boolean[total];
+        for (int pass = 0; pass < 2 && count < populationSize; pass++) {
+            for (int k = 0; k < total && count < populationSize; k++) {
+                int i = order[k];
+                if (taken[i]) continue;
+                int[] genome = i < populationSize ? population[i] : children[i - populationSize];
+                if (pass == 0 && contains(next, count, genome)) continue;
+                taken[i] = true;
+                next[count] = genome;
+                nextFitness[count++] = i < populationSize ? fitness[i] : childFitness[i - populationSize];
+            }
+        }
+        population = next;
+        fitness = nextFitness;
+    }
+
+    private static boolean contains(int[][] list, int count, int[] genome) {
+        for (int i = 0; i < count; i++) {
+            if (Arrays.equals(list[i], genome)) return true;
+        }
+        return false;
+    }
+
+    private double bestFitness() {
+        double best = Double.POSITIVE_INFINITY;
+        for (double f : fitness) best = Math.min(best, f);
+        return best;
+    }
+
+    // Estado de uma thread: SA próprio (gerador, buffers, visitados) e vetor de posições do cruzamento.
+    private class Worker {
+        final SimulatedAnnealing sa;
+        final int[] position;   // position[v] = índice de v no pai B (válido se stamp[v] == epoch)
+        final int[] stamp;
+        int epoch = 0;
+        boolean calibrated = false;
+        long crossovers = 0;
+        final Solution child = new Solution(16);
+        final Solution mutant = new Solution(16);
+
+        Worker(SplittableRandom rand, TargetBounds bounds) {
+            sa = new SimulatedAnnealing(g, source, target, R, rand, bounds);
+            sa.verbose = false;
+            sa.extraLimits = extraLimits;
+            sa.metrics = metrics;
+            sa.recordImprovements = false; // cada rajada recomeça o melhor do SA; ver run()
+            sa.stop = stop;
+            sa.bidirectional = bidirectional;
+            sa.maxIter = burstIterations;
+            position = new int[g.n];
+            stamp = new int[g.n];
+        }
+
+        Solution offspring(int[] a, int[] b) {
+            if (a == null) {
+                child.copyFrom(sa.initialSolution());
+            } else {
+                crossover(a, b, child);
+                if (sa.rand.nextDouble() < mutationRate && child.size() >= 3) {
+                    sa.neighbor(child, mutant);
+                    if (mutant.reachesTarget) child.copyFrom(mutant);
+                }
+            }
+            return localSearch(child);
+        }
+
+        // Corta A num nó intermediário que B também visita e completa com o resto de B.
+        // Sem nó comum o filho é cópia de A (a mutação e a busca local ainda o mudam).
+        void crossover(int[] a, int[] b, Solution out) {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+            for (int j = 1; j < b.length - 1; j++) {
+                stamp[b[j]] = epoch;
+                position[b[j]] = j;
+            }
+            // Reservoir sampling sobre os nós comuns de A
+            int cut = -1;
+            int seen = 0;
+            for (int i = 1; i < a.length - 1; i++) {
+                if (stamp[a[i]] == epoch && sa.rand.nextInt(++seen) == 0) cut = i;
+            }
+            out.clear();
+            if (cut < 0) {
+                for (int v : a) out.add(v);
+            } else {
+                crossovers++;
+                for (int i = 0; i <= cut; i++) out.add(a[i]);
+                for (int j = position[a[cut]] + 1; j < b.length; j++) out.add(b[j]);
+                // O trecho de B pode repetir nós do prefixo de A
+                PathRepair.removeCycles(out);
+            }
+            out.evaluate(g, R, extraLimits, sa.penalty, target);
+        }
+
+        // Rajada curta de SA a partir de 's'. T0 é calibrado só na primeira (as demais reaproveitam).
+        Solution localSearch(Solution s) {
+            sa.warmStart = Arrays.copyOf(s.path, s.size());
+            sa.start();
+            if (!calibrated) {
+                calibrated = true;
+                sa.temp = sa.t0;
+                sa.calibrate = false;
+            }
+            sa.advance(sa.maxIter);
+            return sa.best();
+        }
+
+        Solution evaluate(int[] genome) {
+            Solution s = new Solution(genome.length);
+            for (int v : genome) s.add(v);
+            s.evaluate(g, R, extraLimits, sa.penalty, target);
+            return s;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+import java.lang.management.*;
+import java.util.*;
+
+// Microbenchmarks dos caminhos críticos (evaluate, neighbor, reconnectPath, run e carga de instância).
+// Substitui a medição com currentTimeMillis do BenchmarkRunner por: aquecimento separado da medição
+// (deixa o JIT compilar antes), várias iterações cronometradas com nanoTime, sementes fixas e
+// "profilers" de alocação (bytes/op da thread) e GC (coletas e tempo durante a medição).
+//
+// Uso: java MicroBenchmark [instancia ...] [sintetica:N:M ...]
+//      sem argumentos roda as quatro instâncias de instances/ + sintéticas de 10k e 100k nós.
+public class MicroBenchmark {
+    static final long SEED = 42;
+    static int warmupIterations = 5;
+    static int measureIterations = 10;
+    static long iterationNanos = 200_000_000L;
+    // Iterações do SA no benchmark "run" (o ciclo completo de maxIter leva segundos nas sintéticas)
+    static int runIterations = 5000;
+
+    // Evita que o JIT elimine o trabalho medido
+    static volatile double sink;
+
+    interface Op {
+        void run() throws Exception;
+    }
+
+    static class Result {
+        String benchmark;
+        String param;
+        double meanNs;
+        double stdevNs;
+        double minNs;
+        double allocBytesPerOp;
+        long gcCount;
+        long gcTimeMs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> params = new ArrayList<>(Arrays.asList(args));
+        if (params.isEmpty()) {
+            params.addAll(Arrays.asList(
+                "instances/inst_pequena.txt",
+                "instances/inst_media.txt",
+                "instances/inst_grande.txt",
+                "instances/inst_muito_grande.txt",
+                "sintetica:10000:50000",
+                "sintetica:100000:500000"));
+        }
+
+        System.out.printf("%-16s | %-26s | %14s | %10s | %12s | %12s | %6s | %8s%n",
+                "Benchmark", "Parâmetro", "ns/op", "± desvio", "mín ns/op", "alloc B/op", "GCs", "GC(ms)");
+        System.out.println("-".repeat(125));
+
+        for (String p : params) {
+            Instance inst = p.startsWith("sintetica:") ? synthetic(p) : InstanceLoader.load(p);
+            benchmarkInstance(p, inst);
+        }
+    }
+
+    static void benchmarkInstance(String param, Instance inst) throws Exception {
+        Graph g = inst.graph;
+        String name = param.startsWith("sintetica:") ? param : inst.name;
+
+        SimulatedAnnealing sa = newAnnealing(inst);
+        Solution current = sa.initialSolution();
+        Solution out = new Solution(current.size());
+        SplittableRandom cut = new SplittableRandom(SEED);
+
+        report(measure("evaluate", name, () -> {
+            current.evaluate(g, inst.R, inst.extraLimits, sa.penalty, inst.target);
+            sink = current.fitness;
+        }));
+
+        report(measure("neighbor", name, () -> {
+            sa.neighbor(current, out);
+            sink = out.fitness;
+        }));
+
+        report(measure("reconnectPath", name, () -> {
+            out.startFrom(current, cut.nextInt(Math.max(1, current.size() - 1)));
+            sa.reconnectPath(out, inst.target);
+            sink = out.size();
+        }));
+
+        // Só o laço do SA: limites (Dijkstra reverso) e a escala do lambda (varredura dos arcos) ficam
+        // fora da medida; reset + mesma semente fazem cada amostra repetir a mesma execução.
+        SimulatedAnnealing runner = newAnnealing(inst);
+        runner.maxIter = runIterations;
+        LowerBounds bounds = runner.bounds;
+        report(measure("run", name, () -> {
+            runner.reset(inst.source, inst.target, inst.R, bounds);
+            runner.rand = new SplittableRandom(SEED);
+            sink = runner.run().fitness;
+        }));
+
+        if (!param.startsWith("sintetica:")) {
+            report(measure("load", name, () -> sink = InstanceLoader.load(param).graph.arcCount()));
+        }
+    }
+
+    static SimulatedAnnealing newAnnealing(Instance inst) {
+        SimulatedAnnealing sa = new SimulatedAnnealing(inst.graph, inst.source, inst.target, inst.R,
+                new SplittableRandom(SEED));
+        sa.extraLimits = inst.extraLimits;
+        sa.verbose = false;
+        return sa;
+    }
+
+    // Cronometra 'op' em iterações de ~iterationNanos; a primeira fase só aquece.
+    static Result measure(String benchmark, String param, Op op) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(op);
+        }
+
+        List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+        long gcCount0 = 0, gcTime0 = 0;
+        for (GarbageCollectorMXBean gc : gcs) {
+            gcCount0 += Math.max(0, gc.getCollectionCount());
+            gcTime0 += Math.max(0, gc.getCollectionTime());
+        }
+        long alloc0 = SolverMetrics.threadAllocatedBytes();
+        long totalOps = 0;
+
+        double[] nsPerOp = new double[measureIterations];
+        for (int i = 0; i < measureIterations; i++) {
+            long[] r = runIteration(op);
+            nsPerOp[i] = (double) r[1] / r[0];
+            totalOps += r[0];
+        }
+
+        long alloc1 = SolverMetrics.threadAllocatedBytes();
+        long gcCount1 = 0, gcTime1 = 0;
+        for (GarbageCollectorMXBean gc : gcs) {
+            gcCount1 += Math.max(0, gc.getCollectionCount());
+            gcTime1 += Math.max(0, gc.getCollectionTime());
+        }
+
+        Result res = new Result();
+        res.benchmark = benchmark;
+        res.param = param;
+        double sum = 0, min = Double.MAX_VALUE;
+        for (double v : nsPerOp) {
+            sum += v;
+            min = Math.min(min, v);
+        }
+        res.meanNs = sum / nsPerOp.length;
+        double var = 0;
+        for (double v : nsPerOp) var += (v - res.meanNs) * (v - res.meanNs);
+        res.stdevNs = Math.sqrt(var / Math.max(1, nsPerOp.length - 1));
+        res.minNs = min;
+        res.allocBytesPerOp = alloc0 < 0 ? Double.NaN : (double) (alloc1 - alloc0) / totalOps;
+        res.gcCount = gcCount1 - gcCount0;
+        res.gcTimeMs = gcTime1 - gcTime0;
+        return res;
+    }
+
+    // Executa 'op' até completar iterationNanos; devolve {operações, nanos}.
+    private static long[] runIteration(Op op) throws Exception {
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            op.run();
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < iterationNanos);
+        return new long[] { ops, elapsed };
+    }
+
+    static void report(Result r) {
+        System.out.printf(Locale.US, "%-16s | %-26s | %14.1f | %10.1f | %12.1f | %12.1f | %6d | %8d%n",
+                r.benchmark, r.param, r.meanNs, r.stdevNs, r.minNs, r.allocBytesPerOp, r.gcCount, r.gcTimeMs);
+    }
+
+    // "sintetica:N:M": backbone 0 -> 1 -> ... -> N-1 (garante viabilidade) + arcos aleatórios, semente fixa.
+    static Instance synthetic(String spec) {
+        String[] parts = spec.split(":");
+        int n = Integer.parseInt(parts[1]);
+        int m = Integer.parseInt(parts[2]);
+        SplittableRandom rand = new SplittableRandom(SEED);
+        Graph g = new Graph(n);
+        for (int i = 0; i + 1 < n; i++) {
+            g.addEdge(i, i + 1, 1.0 + rand.nextDouble() * 20.0, 1.0 + rand.nextDouble() * 10.0);
+        }
+        for (int i = n - 1; i < m; i++) {
+            g.addEdge(rand.nextInt(n), rand.nextInt(n), 1.0 + rand.nextDouble() * 20.0, 1.0 + rand.nextDouble() * 10.0);
+        }
+        return new Instance(spec, g.build(), 0, n - 1, n * 5.0);
+    }
+}
@@ -0,0 +1,68 @@
+import java.util.*;
+
+// Heap binário de mínimo sobre pares (id, chave) em vetores primitivos.
+// Não tem decrease-key: entradas obsoletas ficam no heap e quem consome descarta ("lazy deletion").
+public class MinHeap {
+    private int[] ids;
+    private double[] keys;
+    private int size = 0;
+
+    public MinHeap(int capacity) {
+        capacity = Math.max(capacity, 16);
+        ids = new int[capacity];
+        keys = new double[capacity];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void push(int id, double key) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            ids[i] = ids[parent];
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        ids[i] = id;
+        keys[i] = key;
+    }
+
+    public double peekKey() {
+        return keys[0];
+    }
+
+    // Remove o topo e devolve o id; a chave pode ser lida antes com peekKey().
+    public int pop() {
+        int top = ids[0];
+        int lastId = ids[--size];
+        double lastKey = keys[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (lastKey <= keys[child]) break;
+            ids[i] = ids[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        ids[i] = lastId;
+        keys[i] = lastKey;
+        return top;
+    }
+}
@@ -0,0 +1,241 @@
+import java.util.*;
+
+// Biblioteca de movimentos do SA, escolhidos por roleta com pesos adaptativos (estilo ALNS):
+//  - TAIL:     corta num índice e refaz a cauda com passeio aleatório (o movimento original);
+//  - SEGMENT:  troca o trecho path[i..j] pelo menor caminho entre as pontas com peso custo + lambda*recurso
+//              (Dijkstra bidirecional limitado, evitando o resto do caminho);
+//  - REPAIR:   se o caminho estoura R, refaz pelo recurso a janela de arcos que mais consome recurso;
+//  - SHORTCUT: remove nós intermediários quando existe arco direto path[i] -> path[j];
+//  - INSERT:   troca o arco path[i] -> path[i+1] por um desvio path[i] -> w -> path[i+1].
+// A cada 'segmentLength' movimentos o peso de cada operador é atualizado pela pontuação média que ele
+// obteve (nova melhor, melhora, aceito), então os que só geram vizinhos rejeitados perdem espaço.
+public class Neighborhood {
+    static final int TAIL = 0, SEGMENT = 1, REPAIR = 2, SHORTCUT = 3, INSERT = 4;
+    static final String[] NAMES = { "tail", "segment", "repair", "shortcut", "insert" };
+
+    // Resultado de um movimento, informado pelo SA em feedback()
+    static final int REJECTED = 0, ACCEPTED = 1, IMPROVED = 2, NEW_BEST = 3;
+    static final double[] REWARD = { 0, 1, 4, 10 };
+
+    final SimulatedAnnealing sa;
+    final Graph g;
+
+    boolean[] enabled = { true, true, true, true, true };
+    boolean adaptive = true;
+    int segmentLength = 100;
+    double reaction = 0.2;       // peso <- (1 - reaction) * peso + reaction * pontuação média
+    double minWeight = 0.05;
+    int maxSegment = 8;          // arcos trocados por SEGMENT/REPAIR
+    int maxShortcut = 16;        // distância máxima (em índices) procurada por SHORTCUT
+
+    final double[] weights = new double[NAMES.length];
+    private final double[] scores = new double[NAMES.length];
+    private final int[] uses = new int[NAMES.length];
+    // Contagens desde o último flushTo
+    public final long[] applied = new long[NAMES.length];
+    public final long[] rewarded = new long[NAMES.length];
+    private int sinceUpdate = 0;
+    int lastOperator = -1;         // -1: o último vizinho não veio daqui
+
+    // Escala custo/recurso do grafo: lambda = 1 deixa os dois termos com o mesmo peso médio
+    private final double lambdaScale;
+    private BidirectionalDijkstra search; // criado no primeiro uso (vetores O(n))
+
+    public Neighborhood(SimulatedAnnealing sa) {
+        this.sa = sa;
+        this.g = sa.g;
+        double sumCost = 0, sumRes = 0;
+        for (int a = 0; a < g.arcCount(); a++) {
+            sumCost += g.cost[a];
+            sumRes += g.resource[a];
+        }
+        lambdaScale = sumRes > 0 ? sumCost / sumRes : 1.0;
+        resetWeights();
+    }
+
+    public void resetWeights() {
+        Arrays.fill(weights, 1.0);
+        Arrays.fill(scores, 0);
+        Arrays.fill(uses, 0);
+        sinceUpdate = 0;
+    }
+
+    // Escreve em 'out' um vizinho de 's' (tamanho >= 3) com o operador sorteado; em caso de falha do
+    // operador cai no TAIL, que sempre produz algo. O operador usado fica em lastOperator.
+    public void apply(Solution s, Solution out) {
+        int op = select(s);
+        boolean ok;
+        switch (op) {
+            case SEGMENT: ok = segment(s, out, false); break;
+            case REPAIR: ok = segment(s, out, true); break;
+            case SHORTCUT: ok = shortcut(s, out); break;
+            case INSERT: ok = insert(s, out); break;
+            default: ok = false;
+        }
+        if (!ok) {
+            op = TAIL;
+            tail(s, out);
+        }
+        lastOperator = op;
+        applied[op]++;
+        out.evaluateTail(g, sa.R, sa.extraLimits, sa.penalty, sa.target);
+    }
+
+    private int select(Solution s) {
+        double total = 0;
+        for (int k = 0; k < weights.length; k++) {
+            if (usable(k, s)) total += weights[k];
+        }
+        double x = sa.rand.nextDouble() * total;
+        for (int k = 0; k < weights.length; k++) {
+            if (!usable(k, s)) continue;
+            x -= weights[k];
+            if (x < 0) return k;
+        }
+        return TAIL;
+    }
+
+    private boolean usable(int op, Solution s) {
+        if (!enabled[op]) return false;
+        // Reparo só faz sentido com o recurso estourado
+        return op != REPAIR || (s.resource > sa.R && s.reachesTarget);
+    }
+
+    // Chamado pelo SA depois do critério de aceitação com o resultado do último apply().
+    public void feedback(int outcome) {
+        if (lastOperator < 0) return;
+        if (outcome > REJECTED) rewarded[lastOperator]++;
+        if (!adaptive) return;
+        scores[lastOperator] += REWARD[outcome];
+        uses[lastOperator]++;
+        if (++sinceUpdate < segmentLength) return;
+        for (int k = 0; k < weights.length; k++) {
+            if (uses[k] > 0) {
+                weights[k] = Math.max(minWeight, (1 - reaction) * weights[k] + reaction * scores[k] / uses[k]);
+            }
+            scores[k] = 0;
+            uses[k] = 0;
+        }
+        sinceUpdate = 0;
+    }
+
+    private void tail(Solution s, Solution out) {
+        int i = sa.rand.nextInt(s.size() - 1);
+        out.startFrom(s, i);
+        sa.reconnectPath(out, sa.target);
+    }
+
+    // Troca path[i..j] pelo menor caminho (custo + lambda*recurso) entre path[i] e path[j].
+    // No reparo a janela é a de maior consumo de recurso e lambda é alto.
+    private boolean segment(Solution s, Solution out, boolean repair) {
+        int n = s.size();
+        int i, j;
+        double lambda;
+        if (repair) {
+            if (s.validPrefix < n) return false;
+            int w = Math.min(maxSegment, n - 1);
+            i = 0;
+            double heaviest = -1;
+            for (int k = 0; k + w < n; k++) {
+                double r = s.prefixResource[k + w] - s.prefixResource[k];
+                if (r > heaviest) {
+                    heaviest = r;
+                    i = k;
+                }
+            }
+            j = i + w;
+            lambda = 10 * lambdaScale;
+        } else {
+            i = sa.rand.nextInt(n - 1);
+            j = i + 1 + sa.rand.nextInt(Math.min(maxSegment, n - 1 - i));
+            // Fora do orçamento puxa para caminhos mais leves em recurso
+            lambda = sa.rand.nextDouble() * 2 * lambdaScale * (s.resource > sa.R ? 4 : 1);
+        }
+
+        if (search == null) search = new BidirectionalDijkstra(g);
+        int stamp = sa.nextEpoch();
+        int[] marks = sa.visitStamp;
+        for (int k = 0; k < n; k++) {
+            if (k < i || k > j) marks[s.get(k)] = stamp;
+        }
+        if (search.run(s.get(i), s.get(j), 1.0, lambda, marks, stamp) == Double.POSITIVE_INFINITY) {
+            return false;
+        }
+
+        out.startFrom(s, i);
+        search.appendPath(out);
+        // Trecho novo não pode repetir nós (nem o que ficou de fora nem ele mesmo)
+        for (int k = i + 1; k < out.size(); k++) {
+            int v = out.get(k);
+            if (marks[v] == stamp) return false;
+            marks[v] = stamp;
+        }
+        if (out.size() - i == j - i + 1 && samePath(s, out, i, j)) return false;
+        for (int k = j + 1; k < n; k++) out.add(s.get(k));
+        return true;
+    }
+
+    private static boolean samePath(Solution a, Solution b, int from, int to) {
+        for (int k = from; k <= to; k++) {
+            if (a.get(k) != b.get(k)) return false;
+        }
+        return true;
+    }
+
+    // Atalho: de um i sorteado, o j mais distante (até maxShortcut) com arco direto path[i] -> path[j].
+    private boolean shortcut(Solution s, Solution out) {
+        int n = s.size();
+        if (n < 3) return false;
+        int i = sa.rand.nextInt(n - 2);
+        int u = s.get(i);
+        for (int j = Math.min(n - 1, i + maxShortcut); j >= i + 2; j--) {
+            if (g.findArc(u, s.get(j)) >= 0) {
+                out.startFrom(s, i);
+                for (int k = j; k < n; k++) out.add(s.get(k));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Desvio: path[i] -> w -> path[i+1] com w fora do caminho (reservoir sobre os candidatos).
+    private boolean insert(Solution s, Solution out) {
+        int n = s.size();
+        int i = sa.rand.nextInt(n - 1);
+        int u = s.get(i), v = s.get(i + 1);
+        int stamp = sa.nextEpoch();
+        int[] marks = sa.visitStamp;
+        for (int k = 0; k < n; k++) marks[s.get(k)] = stamp;
+
+        int chosen = -1, seen = 0;
+        for (int a = g.arcStart(u); a < g.arcEnd(u); a++) {
+            int w = g.targets[a];
+            if (marks[w] == stamp || g.findArc(w, v) < 0) continue;
+            if (sa.rand.nextInt(++seen) == 0) chosen = w;
+        }
+        if (chosen < 0) return false;
+        out.startFrom(s, i);
+        out.add(chosen);
+        for (int k = i + 1; k < n; k++) out.add(s.get(k));
+        return true;
+    }
+
+    void flushTo(SolverMetrics m) {
+        for (int k = 0; k < NAMES.length; k++) {
+            m.operatorApplied[k].add(applied[k]);
+            m.operatorRewarded[k].add(rewarded[k]);
+            applied[k] = 0;
+            rewarded[k] = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < NAMES.length; k++) {
+            if (k > 0) sb.append(' ');
+            sb.append(String.format(Locale.US, "%s=%d/%d(w=%.2f)", NAMES[k], rewarded[k], applied[k], weights[k]));
+        }
+        return sb.toString();
+    }
+}
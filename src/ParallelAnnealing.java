@@ -0,0 +1,147 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+// Multi-start / modelo de ilhas: K cadeias de SA independentes, uma por núcleo.
+// Com migrationInterval > 0 as cadeias param a cada 'migrationInterval' iterações e cada ilha
+// recebe a melhor solução da vizinha (topologia em anel), se for melhor que a sua corrente.
+public class ParallelAnnealing {
+    Graph g;
+    int source, target;
+    double R;
+    double[] extraLimits; // K > 1 (ver SimulatedAnnealing.extraLimits)
+
+    int chains = Runtime.getRuntime().availableProcessors();
+    int migrationInterval = 0; // 0 = multi-start puro, sem troca de soluções
+    // Cada run() deriva as cadeias desta semente: mesma semente => mesmas cadeias e migrações
+    long seed = new SplittableRandom().nextLong();
+    // Critérios de parada comuns às cadeias (null = só o resfriamento)
+    StoppingRules stop;
+    boolean bidirectional = false; // ver SimulatedAnnealing.bidirectional
+    // Compartilhado por todas as cadeias (contadores somados em paralelo)
+    SolverMetrics metrics = new SolverMetrics();
+
+    public static class ChainStats {
+        public int chain;
+        public int iterations;
+        public long accepted;
+        public int migrationsReceived;
+        public double bestFitness;
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "cadeia %d: iter=%d aceitos=%d migracoes=%d melhor=%.2f",
+                    chain, iterations, accepted, migrationsReceived, bestFitness);
+        }
+    }
+
+    public static class Result {
+        public Solution best;
+        public List<ChainStats> chains = new ArrayList<>();
+        public long timeMs;
+        public SolverMetrics metrics;
+        public long seed;
+    }
+
+    public ParallelAnnealing(Graph g, int source, int target, double R) {
+        this.g = g;
+        this.source = source;
+        this.target = target;
+        this.R = R;
+        g.build();
+    }
+
+    public Result run() throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        metrics.begin();
+
+        // Cada cadeia tem seu próprio gerador (split) e seus próprios buffers.
+        SimulatedAnnealing[] sa = new SimulatedAnnealing[chains];
+        int[] migrations = new int[chains];
+        TargetBounds bounds = new TargetBounds(g, target);
+        // Landmarks da construção bidirecional montados aqui, uma vez, e não por cada thread
+        if (bidirectional) g.landmarks();
+        for (int c = 0; c < chains; c++) {
+            sa[c] = new SimulatedAnnealing(g, source, target, R, new SplittableRandom(Seeds.derive(seed, c)), bounds);
+            sa[c].verbose = false;
+            sa[c].extraLimits = extraLimits;
+            sa[c].metrics = metrics;
+            sa[c].stop = stop;
+            sa[c].bidirectional = bidirectional;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(chains, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>(chains);
+            for (SimulatedAnnealing chain : sa) {
+                tasks.add(() -> {
+                    chain.start();
+                    return chain.advance(migrationInterval > 0 ? migrationInterval : chain.maxIter);
+                });
+            }
+
+            boolean running = runEpoch(pool, tasks);
+
+            if (migrationInterval > 0) {
+                tasks.clear();
+                for (SimulatedAnnealing chain : sa) {
+                    tasks.add(() -> chain.advance(migrationInterval));
+                }
+                while (running) {
+                    migrate(sa, migrations);
+                    running = runEpoch(pool, tasks);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Result result = new Result();
+        for (int c = 0; c < chains; c++) {
+            Solution b = sa[c].best();
+            if (result.best == null || b.fitness < result.best.fitness) {
+                result.best = b;
+            }
+            ChainStats st = new ChainStats();
+            st.chain = c;
+            st.iterations = sa[c].iterationsDone;
+            st.accepted = sa[c].accepted;
+            st.migrationsReceived = migrations[c];
+            st.bestFitness = b.fitness;
+            result.chains.add(st);
+        }
+        metrics.end();
+        result.metrics = metrics;
+        result.seed = seed;
+        result.timeMs = System.currentTimeMillis() - startTime;
+        return result;
+    }
+
+    // Roda uma fatia em todas as cadeias; true se alguma ainda não terminou.
+    private static boolean runEpoch(ExecutorService pool, List<Callable<Boolean>> tasks)
+            throws InterruptedException {
+        boolean anyRunning = false;
+        for (Future<Boolean> f : pool.invokeAll(tasks)) {
+            try {
+                anyRunning |= f.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falha em uma cadeia do SA", e.getCause());
+            }
+        }
+        return anyRunning;
+    }
+
+    // Anel: a ilha c recebe a melhor solução da ilha c-1. Copia antes para não propagar na mesma rodada.
+    private void migrate(SimulatedAnnealing[] sa, int[] migrations) {
+        Solution[] migrants = new Solution[sa.length];
+        for (int c = 0; c < sa.length; c++) {
+            Solution b = sa[c].best();
+            migrants[c] = new Solution(b.size());
+            migrants[c].copyFrom(b);
+        }
+        for (int c = 0; c < sa.length; c++) {
+            int from = (c + sa.length - 1) % sa.length;
+            if (sa[c].adopt(migrants[from])) migrations[c]++;
+        }
+    }
+}
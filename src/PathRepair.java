@@ -0,0 +1,71 @@
+import java.util.*;
+
+// Conserta um caminho depois de mudanças no grafo (VersionedGraph): cada arco que deixou de existir
+// vira o menor desvio, em custo + lambda * recurso, do nó anterior até o primeiro nó adiante no
+// caminho que ainda é alcançável. Se nenhum for (o nó virou beco sem saída), recua até
+// 'maxBacktrack' nós e tenta o desvio de lá. Ciclos criados pelos desvios são cortados no fim.
+// Sem conserto devolve o prefixo até ali (não chega ao destino; o SA recomeça por uma solução
+// inicial nova).
+public class PathRepair {
+    final Graph g;
+    double lambda = 1.0;
+    int maxBacktrack = 8;
+
+    public int repairedArcs = 0;   // arcos removidos substituídos por desvio na última chamada
+
+    private final Dijkstra sp;
+    private final Solution detour = new Solution(16);
+
+    public PathRepair(Graph g) {
+        this.g = g.build();
+        this.sp = new Dijkstra(g);
+    }
+
+    public Solution repair(int[] path, int length) {
+        repairedArcs = 0;
+        Solution out = new Solution(length);
+        if (length == 0) return out;
+        out.add(path[0]);
+        int i = 0;
+        while (i < length - 1) {
+            if (g.findArc(path[i], path[i + 1]) >= 0) {
+                out.add(path[++i]);
+                continue;
+            }
+            // Dijkstra até path[i+1]; sem alcançá-lo a árvore inteira foi explorada e serve para os seguintes
+            int j = length;
+            for (int back = 0; back <= maxBacktrack; back++) {
+                sp.run(out.last(), path[i + 1], 1, lambda);
+                j = i + 1;
+                while (j < length && sp.distance(path[j]) == Double.POSITIVE_INFINITY) j++;
+                if (j < length || out.size() == 1) break;
+                out.truncate(out.size() - 1);
+            }
+            if (j == length) break;
+            sp.pathTo(path[j], detour);
+            for (int k = 1; k < detour.size(); k++) out.add(detour.get(k));
+            repairedArcs++;
+            i = j;
+        }
+        removeCycles(out);
+        return out;
+    }
+
+    // Ao rever um nó, descarta o trecho desde a visita anterior (o arco seguinte sai do mesmo nó).
+    static void removeCycles(Solution s) {
+        Map<Integer, Integer> position = new HashMap<>();
+        int w = 0;
+        for (int i = 0; i < s.size(); i++) {
+            int v = s.path[i];
+            Integer seen = position.get(v);
+            if (seen != null) {
+                for (int k = seen + 1; k < w; k++) position.remove(s.path[k]);
+                w = seen;
+            } else {
+                position.put(v, w);
+            }
+            s.path[w++] = v;
+        }
+        s.truncate(w);
+    }
+}
@@ -0,0 +1,389 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Serviço de consultas em lote sobre um grafo carregado uma única vez.
+// Cada consulta (origem, destino, R, orçamento de tempo) roda num pool de workers com prazo
+// próprio (contado desde a submissão). Cada thread reaproveita o seu SimulatedAnnealing
+// (buffers e vetor de visitados) e os limites do Dijkstra reverso são compartilhados entre
+// consultas com o mesmo destino.
+// O grafo pode mudar com o serviço no ar (update): cada consulta resolve sobre a versão vigente
+// quando começou (VersionedGraph) e resultados já devolvidos podem ser reotimizados de forma
+// incremental (reoptimize) em vez de resolvidos do zero.
+public class QueryService implements AutoCloseable {
+    final VersionedGraph graphs;
+    final ExecutorService pool;
+
+    long defaultBudgetMillis = 1000;
+    int maxCachedTargets = 64;
+
+    // Opcional: cache de resultados por (origem, destino). Null desliga.
+    ResultCache cache;
+    // Tenta o label-setting exato antes do SA (limite de rótulos); resultados exatos entram no cache como provados.
+    int exactLabelLimit = 0;
+    // O SA reaquece até o prazo; para antes se passar tantas iterações sem melhorar (0 = usa o prazo todo).
+    int stallIterations = 20000;
+
+    // Soma das métricas de todas as consultas resolvidas pelo SA
+    final SolverMetrics totals = new SolverMetrics();
+
+    // Chave (versão << 32 | destino): limites de versões antigas só servem às consultas ainda em voo nelas.
+    // Valor: TargetBounds (exato) ou a visão ALT dos landmarks do grafo (ver boundsFor/exactBoundsFor).
+    private final ConcurrentHashMap<Long, LowerBounds> boundsByTarget = new ConcurrentHashMap<>();
+    private final ThreadLocal<SimulatedAnnealing> workers = new ThreadLocal<>();
+    // Gerador da consulta k = derive(seed, k), na ordem de submissão
+    final long seed;
+    private final AtomicLong submissions = new AtomicLong();
+
+    public static class Query {
+        public final int source, target;
+        public final double R;
+        public final double[] extraLimits; // grafos com K > 1 recursos: limites dos recursos 1..K-1
+        public final long budgetMillis; // <= 0 usa o padrão do serviço
+
+        public Query(int source, int target, double R, long budgetMillis) {
+            this(source, target, R, null, budgetMillis);
+        }
+
+        public Query(int source, int target, double R, double[] extraLimits, long budgetMillis) {
+            this.source = source;
+            this.target = target;
+            this.R = R;
+            this.extraLimits = extraLimits;
+            this.budgetMillis = budgetMillis;
+        }
+    }
+
+    public static class QueryResult {
+        public Query query;
+        public Solution best;
+        public int iterations;
+        public boolean deadlineHit;
+        public StoppingRules.Reason stopReason;
+        public long elapsedMs;   // desde a submissão (inclui espera na fila)
+        public boolean fromCache;
+        public boolean optimal;
+        public SolverMetrics metrics; // null se não passou pelo SA (cache ou exato)
+        public long version;          // versão do grafo sobre a qual foi resolvida
+        public boolean reused;        // reoptimize: as mudanças não afetaram o resultado anterior
+        public int repairedArcs;      // reoptimize: arcos removidos do caminho anterior trocados por desvios
+        public Throwable error;
+    }
+
+    public QueryService(Graph g, int threads) {
+        this(g, threads, new SplittableRandom().nextLong());
+    }
+
+    public QueryService(Graph g, int threads, long seed) {
+        this.graphs = new VersionedGraph(g);
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.seed = seed;
+    }
+
+    public CompletableFuture<QueryResult> submit(Query q) {
+        long submitted = System.nanoTime();
+        SplittableRandom rand = new SplittableRandom(Seeds.derive(seed, submissions.getAndIncrement()));
+        return CompletableFuture.supplyAsync(() -> solve(q, submitted, rand), pool);
+    }
+
+    // Submete o lote e entrega cada resultado a 'sink' assim que fica pronto (na thread chamadora).
+    public void solveAll(List<Query> batch, Consumer<QueryResult> sink) throws InterruptedException {
+        BlockingQueue<QueryResult> done = new LinkedBlockingQueue<>();
+        for (Query q : batch) {
+            deliver(submit(q), q, done);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            sink.accept(done.take());
+        }
+    }
+
+    // Sempre enfileira um resultado: se a tarefa falhou fora do catch de solve (ex.: um Error na
+    // thread), entra um QueryResult só com 'error'; senão quem espera em 'done' ficaria bloqueado.
+    static void deliver(CompletableFuture<QueryResult> f, Query q, BlockingQueue<QueryResult> done) {
+        f.whenComplete((r, e) -> {
+            if (r == null) {
+                r = new QueryResult();
+                r.query = q;
+                r.error = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            }
+            done.add(r);
+        });
+    }
+
+    // Aplica um lote de mudanças (ver GraphUpdate) e publica a nova versão do grafo. Consultas em voo
+    // terminam na versão em que começaram; limites por destino são refeitos e o cache só perde o que
+    // o lote afetou (ResultCache.update).
+    public synchronized VersionedGraph.Version update(GraphUpdate up) {
+        VersionedGraph.Version v = graphs.apply(up);
+        boundsByTarget.clear();
+        if (cache != null) cache.update(up, v.graph, v.improving, v.number);
+        return v;
+    }
+
+    // Reotimização incremental de um resultado devolvido antes de updates no grafo:
+    //  - nenhum lote tocou o caminho e nenhum pode ter barateado outro: o resultado continua valendo;
+    //  - senão, se o label-setting limitado não resolver (exactLabelLimit), os arcos removidos viram
+    //    desvios (PathRepair) e o caminho consertado é o warm start de um SA com o orçamento da
+    //    consulta, em vez de recomeçar de um passeio aleatório.
+    public CompletableFuture<QueryResult> reoptimize(QueryResult previous) {
+        long submitted = System.nanoTime();
+        SplittableRandom rand = new SplittableRandom(Seeds.derive(seed, submissions.getAndIncrement()));
+        return CompletableFuture.supplyAsync(() -> resolve(previous, submitted, rand), pool);
+    }
+
+    private QueryResult solve(Query q, long submitted, SplittableRandom rand) {
+        QueryResult res = new QueryResult();
+        res.query = q;
+        VersionedGraph.Version ver = graphs.current();
+        Graph g = ver.graph;
+        res.version = ver.number;
+        try {
+            // O cache só conhece R: consultas com limites extras não passam por ele
+            ResultCache cache = q.extraLimits == null ? this.cache : null;
+            ResultCache.Lookup cached = cache != null ? cache.lookup(q.source, q.target, q.R, ver.number) : null;
+            if (cached != null && cached.optimal) {
+                res.best = new Solution(cached.entry.path.length);
+                for (int v : cached.entry.path) res.best.add(v);
+                res.best.evaluate(g, q.R, 100.0, q.target);
+                res.fromCache = true;
+                res.optimal = true;
+                res.elapsedMs = (System.nanoTime() - submitted) / 1_000_000L;
+                return res;
+            }
+
+            if (solveExact(ver, q, cache, res)) {
+                res.elapsedMs = (System.nanoTime() - submitted) / 1_000_000L;
+                return res;
+            }
+            anneal(ver, q, cached != null ? cached.entry.path : null, submitted, rand, res);
+            if (cache != null) cache.put(q.source, q.target, res.best, -1, ver.number);
+        } catch (RuntimeException e) {
+            res.error = e;
+        }
+        res.elapsedMs = (System.nanoTime() - submitted) / 1_000_000L;
+        return res;
+    }
+
+    private QueryResult resolve(QueryResult prev, long submitted, SplittableRandom rand) {
+        Query q = prev.query;
+        QueryResult res = new QueryResult();
+        res.query = q;
+        VersionedGraph.Version ver = graphs.current();
+        res.version = ver.number;
+        ResultCache cache = q.extraLimits == null ? this.cache : null;
+        try {
+            List<VersionedGraph.Version> changes = graphs.changesSince(prev.version);
+            if (prev.best == null || changes == null) {
+                return solve(q, submitted, rand); // histórico curto demais: do zero
+            }
+            int[] path = Arrays.copyOf(prev.best.path, prev.best.size());
+            boolean touched = false, improving = false;
+            for (VersionedGraph.Version v : changes) {
+                touched |= v.update.touches(path, path.length);
+                improving |= v.improving;
+            }
+
+            if (!touched && !improving) {
+                // Só arcos fora do caminho pioraram ou sumiram: a resposta anterior continua a mesma
+                res.best = new Solution(path.length);
+                res.best.copyFrom(prev.best);
+                res.optimal = prev.optimal;
+                res.reused = true;
+            } else if (!solveExact(ver, q, cache, res)) {
+                Solution start = prev.best;
+                if (touched) {
+                    PathRepair repair = new PathRepair(ver.graph);
+                    start = repair.repair(path, path.length);
+                    res.repairedArcs = repair.repairedArcs;
+                }
+                anneal(ver, q, Arrays.copyOf(start.path, start.size()), submitted, rand, res);
+                if (cache != null) cache.put(q.source, q.target, res.best, -1, ver.number);
+            }
+        } catch (RuntimeException e) {
+            res.error = e;
+        }
+        res.elapsedMs = (System.nanoTime() - submitted) / 1_000_000L;
+        return res;
+    }
+
+    // Label-setting limitado a exactLabelLimit rótulos; true se provou o ótimo (ou a inviabilidade).
+    // Com landmarks tenta antes com os limites do ALT (sem Dijkstra reverso); se estourar o limite,
+    // repete com os exatos, que o SA usaria de qualquer forma e ficam em cache para ele.
+    private boolean solveExact(VersionedGraph.Version ver, Query q, ResultCache cache, QueryResult res) {
+        if (exactLabelLimit <= 0) return false;
+        LowerBounds bounds = boundsFor(ver, q.target);
+        LabelSettingSolver exact = new LabelSettingSolver(ver.graph, q.source, q.target, q.R, q.extraLimits, bounds);
+        exact.maxLabels = exactLabelLimit;
+        Solution opt = exact.solve();
+        if (!exact.optimal && !(bounds instanceof TargetBounds)) {
+            exact = new LabelSettingSolver(ver.graph, q.source, q.target, q.R, q.extraLimits,
+                    exactBoundsFor(ver, q.target));
+            exact.maxLabels = exactLabelLimit;
+            opt = exact.solve();
+        }
+        if (!exact.optimal) return false;
+        res.best = opt;
+        res.optimal = true;
+        if (cache != null) cache.put(q.source, q.target, opt, q.R, ver.number);
+        return true;
+    }
+
+    // SA do worker desta thread sobre a versão 'ver' (recriado quando a versão muda), com prazo
+    // contado desde a submissão e partindo de 'warm' quando houver.
+    private void anneal(VersionedGraph.Version ver, Query q, int[] warm, long submitted, SplittableRandom rand,
+            QueryResult res) {
+        TargetBounds bounds = exactBoundsFor(ver, q.target);
+        SimulatedAnnealing sa = workers.get();
+        if (sa == null || sa.g != ver.graph) {
+            sa = new SimulatedAnnealing(ver.graph, q.source, q.target, q.R, rand, bounds);
+            sa.verbose = false;
+            workers.set(sa);
+        } else {
+            sa.reset(q.source, q.target, q.R, bounds);
+            sa.rand = rand;
+        }
+        sa.extraLimits = q.extraLimits;
+        sa.warmStart = warm;
+        sa.metrics = new SolverMetrics();
+        sa.metrics.label = q.source + "->" + q.target;
+        long budget = q.budgetMillis > 0 ? q.budgetMillis : defaultBudgetMillis;
+        StoppingRules rules = new StoppingRules()
+                .deadline(submitted + budget * 1_000_000L)
+                .stallIterations(stallIterations);
+
+        Solution best = sa.solve(rules, null);
+        // O buffer do worker será reaproveitado: o resultado leva uma cópia.
+        res.best = new Solution(best.size());
+        res.best.copyFrom(best);
+        res.iterations = sa.iterationsDone;
+        res.deadlineHit = sa.stopReason == StoppingRules.Reason.DEADLINE;
+        res.stopReason = sa.stopReason;
+        res.metrics = sa.metrics;
+        totals.merge(sa.metrics);
+    }
+
+    // Limites do label-setting: o que já estiver em cache para o destino (exato ou ALT); senão
+    // LowerBounds.forTarget, que com landmarks (snapshot pré-processado) não roda Dijkstra reverso.
+    private LowerBounds boundsFor(VersionedGraph.Version ver, int target) {
+        long key = (ver.number << 32) | (target & 0xffffffffL);
+        LowerBounds b = boundsByTarget.get(key);
+        if (b != null) return b;
+        evictBounds();
+        return boundsByTarget.computeIfAbsent(key, t -> LowerBounds.forTarget(ver.graph, target));
+    }
+
+    // Limites do SA: sempre exatos (ver SimulatedAnnealing.bounds). Substituem a visão ALT do destino
+    // no cache, já que servem também ao label-setting.
+    private TargetBounds exactBoundsFor(VersionedGraph.Version ver, int target) {
+        long key = (ver.number << 32) | (target & 0xffffffffL);
+        LowerBounds b = boundsByTarget.get(key);
+        if (b instanceof TargetBounds) return (TargetBounds) b;
+        evictBounds();
+        return (TargetBounds) boundsByTarget.compute(key,
+                (k, old) -> old instanceof TargetBounds ? old : new TargetBounds(ver.graph, target));
+    }
+
+    // Cada entrada exata custa 8 * (K + 1) bytes por nó: limita quantos destinos ficam em memória.
+    private void evictBounds() {
+        if (boundsByTarget.size() >= maxCachedTargets) boundsByTarget.clear();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Demo: java QueryService <instancia> [consultas] [threads] [orcamento_ms] [--seed=N]
+    public static void main(String[] cmdline) throws Exception {
+        String[] args = Seeds.positional(cmdline);
+        if (args.length < 1) {
+            System.out.println("Uso: java QueryService <instancia> [consultas] [threads] [orcamento_ms] [--seed=N]");
+            return;
+        }
+        long seed = Seeds.fromArgs(cmdline);
+        System.out.println("Semente: " + seed);
+        Instance inst = InstanceLoader.load(args[0]);
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long budget = args.length > 3 ? Long.parseLong(args[3]) : 100;
+
+        // Destinos concentrados em poucos nós, como no tráfego real
+        Random rand = new Random(Seeds.derive(seed, "consultas"));
+        List<Query> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int target = rand.nextInt(10) == 0 ? rand.nextInt(inst.graph.n) : inst.target;
+            batch.add(new Query(rand.nextInt(inst.graph.n), target, inst.R, inst.extraLimits, budget));
+        }
+
+        long start = System.currentTimeMillis();
+        int[] feasible = new int[1];
+        ResultCache cache = new ResultCache(1_000_000);
+        SolverMetrics[] slowest = new SolverMetrics[1];
+        List<QueryResult> results = new ArrayList<>();
+        QueryService service = new QueryService(inst.graph, threads, seed);
+        try {
+            service.cache = cache;
+            service.exactLabelLimit = 100_000;
+            service.totals.label = "total";
+            service.solveAll(batch, r -> {
+                if (r.best != null && r.best.reachesTarget
+                        && r.best.withinLimits(r.query.R, r.query.extraLimits)) feasible[0]++;
+                if (r.metrics != null && (slowest[0] == null
+                        || r.metrics.elapsedMillis() > slowest[0].elapsedMillis())) {
+                    slowest[0] = r.metrics;
+                }
+                results.add(r);
+            });
+            long elapsed = System.currentTimeMillis() - start;
+            System.out.printf(Locale.US, "%d consultas em %dms (%.1f consultas/s), %d viáveis%n",
+                    count, elapsed, count * 1000.0 / Math.max(1, elapsed), feasible[0]);
+            System.out.println(cache);
+
+            // Atualização de tráfego: 1% dos arcos muda de custo e alguns arcos usados pelas respostas somem
+            GraphUpdate traffic = trafficUpdate(service.graphs.graph(), results, Seeds.derive(seed, "trafego"));
+            long t0 = System.currentTimeMillis();
+            service.update(traffic);
+            System.out.println(traffic + " aplicado em " + (System.currentTimeMillis() - t0) + "ms; " + cache);
+
+            start = System.currentTimeMillis();
+            int[] outcome = new int[3]; // reaproveitados, consertados, viáveis
+            BlockingQueue<QueryResult> done = new LinkedBlockingQueue<>();
+            for (QueryResult r : results) deliver(service.reoptimize(r), r.query, done);
+            for (int i = 0; i < results.size(); i++) {
+                QueryResult r = done.take();
+                if (r.reused) outcome[0]++;
+                if (r.repairedArcs > 0) outcome[1]++;
+                if (r.best != null && r.best.reachesTarget
+                        && r.best.withinLimits(r.query.R, r.query.extraLimits)) outcome[2]++;
+            }
+            System.out.printf(Locale.US, "reotimização: %d resultados em %dms, %d inalterados, %d consertados, %d viáveis%n",
+                    results.size(), System.currentTimeMillis() - start, outcome[0], outcome[1], outcome[2]);
+        } finally {
+            service.close();
+        }
+        System.out.println(service.totals.toJson());
+        if (slowest[0] != null) System.out.println("mais lenta: " + slowest[0].toJson());
+    }
+
+    // Custos de ~1% dos arcos variam +-30% e um arco do meio de cada 20ª resposta é removido.
+    static GraphUpdate trafficUpdate(Graph g, List<QueryResult> results, long seed) {
+        SplittableRandom rand = new SplittableRandom(seed);
+        GraphUpdate up = new GraphUpdate();
+        LongHashSet used = new LongHashSet(16);
+        for (int i = 0; i < results.size(); i += 20) {
+            Solution s = results.get(i).best;
+            if (s == null || s.size() < 3) continue;
+            int k = s.size() / 2;
+            if (used.add(LongHashSet.key(s.get(k - 1), s.get(k)))) up.remove(s.get(k - 1), s.get(k));
+        }
+        for (int u = 0; u < g.n; u++) {
+            for (int a = g.arcStart(u); a < g.arcEnd(u); a++) {
+                if (rand.nextInt(100) != 0 || !used.add(LongHashSet.key(u, g.head(a)))) continue;
+                up.change(u, g.head(a), InstanceGenerator.round2(g.cost(a) * (0.7 + 0.6 * rand.nextDouble())),
+                        g.resource(a));
+            }
+        }
+        return up;
+    }
+}
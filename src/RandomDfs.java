@@ -0,0 +1,141 @@
+import java.util.*;
+
+// Busca em profundidade aleatória e iterativa que estende um caminho até o destino. É o construtor
+// comum da solução inicial e da reconexão dos vizinhos (SimulatedAnnealing.reconnectPath).
+// A pilha de nós é o próprio caminho. Avançar custa o mesmo que o passeio aleatório antigo (um sorteio
+// sobre os arcos do nó, com os mesmos pesos e a mesma preferência por arcos que cabem em R); só ao
+// voltar a um nível por recuo os arcos ainda não tentados dele são copiados para 'order', de onde
+// saem sem reposição por troca de índices (Fisher-Yates preguiçoso). Sem recursão e sem lista por
+// nível, então serve para caminhos com milhões de nós.
+// Nó que esgotou seus arcos continua marcado (com este prefixo ele não leva ao destino), então cada
+// nó é empilhado no máximo uma vez: O(n + m) no pior caso, mesmo sem limite de recuos.
+class RandomDfs {
+    final SimulatedAnnealing sa;
+
+    // Nível d: tried[d] = primeiro arco tentado; se first[d] >= 0, order[first[d] .. end[d]-1] são
+    // os arcos restantes e a região do nível começa em start[d] (regiões empilhadas, topo em 'top')
+    private int[] order = new int[64];
+    private int[] tried = new int[16];
+    private int[] start = new int[16];
+    private int[] first = new int[16];
+    private int[] end = new int[16];
+    private double[] used = new double[16]; // recurso gasto até o nó do nível d
+    private int top;
+
+    int backtracks; // recuos na última extend()
+
+    RandomDfs(SimulatedAnnealing sa) {
+        this.sa = sa;
+    }
+
+    // Estende 'path' a partir de path.last() até 'subTarget', sem passar por nós com visitStamp ==
+    // stamp (quem chama marca o prefixo). 'used0' = recurso já gasto no prefixo. Desiste depois de
+    // 'maxBacktracks' recuos ou se não houver caminho; aí 'path' fica com o trecho onde parou.
+    boolean extend(Solution path, int subTarget, int stamp, double used0, int maxBacktracks) {
+        Graph g = sa.g;
+        int[] marks = sa.visitStamp;
+        int base = path.size() - 1;
+        int depth = 0;
+        backtracks = 0;
+        top = 0;
+        push(0, used0);
+
+        while (path.last() != subTarget) {
+            int u = path.last();
+            int a;
+            if (first[depth] < 0) {
+                a = pick(u, g.arcStart(u), g.arcEnd(u), null, used[depth], stamp);
+                tried[depth] = a;
+            } else {
+                a = pickRemaining(depth, u, stamp);
+            }
+            if (a >= 0) {
+                int v = g.targets[a];
+                marks[v] = stamp;
+                path.add(v);
+                depth++;
+                push(depth, used[depth - 1] + g.resource[a]);
+                continue;
+            }
+            // Beco sem saída: recua um nível (o nó fica marcado) e abre os arcos restantes de lá
+            if (depth == 0 || ++backtracks > maxBacktracks) return false;
+            if (first[depth] >= 0) top = start[depth];
+            depth--;
+            path.truncate(base + depth + 1);
+            if (first[depth] < 0) materialize(depth, path.last(), stamp);
+        }
+        return true;
+    }
+
+    private void push(int d, double spent) {
+        if (d == first.length) {
+            tried = Arrays.copyOf(tried, d * 2);
+            start = Arrays.copyOf(start, d * 2);
+            first = Arrays.copyOf(first, d * 2);
+            end = Arrays.copyOf(end, d * 2);
+            used = Arrays.copyOf(used, d * 2);
+        }
+        first[d] = -1;
+        used[d] = spent;
+    }
+
+    // Copia para o topo de 'order' os arcos de u que ainda podem servir (menos o já tentado).
+    private void materialize(int d, int u, int stamp) {
+        Graph g = sa.g;
+        int need = top + g.arcEnd(u) - g.arcStart(u);
+        if (need > order.length) order = Arrays.copyOf(order, Math.max(need, order.length * 2));
+        start[d] = top;
+        first[d] = top;
+        for (int a = g.arcStart(u); a < g.arcEnd(u); a++) {
+            if (a != tried[d] && sa.visitStamp[g.targets[a]] != stamp) order[top++] = a;
+        }
+        end[d] = top;
+    }
+
+    // Sorteia entre os arcos restantes do nível d; o escolhido troca de lugar com order[first[d]]
+    // e sai do intervalo.
+    private int pickRemaining(int d, int u, int stamp) {
+        int i = pick(u, first[d], end[d], order, used[d], stamp);
+        if (i < 0) return -1;
+        int a = order[i];
+        order[i] = order[first[d]];
+        order[first[d]++] = a;
+        return a;
+    }
+
+    // Reservoir sampling (k = 1) sobre os índices lo..hi-1 (arcos de u, ou posições de 'arcs' se
+    // não for null), sem montar lista de candidatos. Só considera vizinhos não visitados que alcançam
+    // o destino. Prefere os que ainda cabem em R (used + r(a) + limite de recurso de v <= R); se nenhum
+    // couber, aceita qualquer um. Retorna o índice escolhido ou -1.
+    private int pick(int u, int lo, int hi, int[] arcs, double spent, int stamp) {
+        Graph g = sa.g;
+        LowerBounds bounds = sa.bounds;
+        int[] marks = sa.visitStamp;
+        int feasible = -1;
+        int any = -1;
+        double weightFeasible = 0;
+        double weightAny = 0;
+        for (int i = lo; i < hi; i++) {
+            int a = arcs == null ? i : arcs[i];
+            int v = g.targets[a];
+            if (marks[v] == stamp) continue;
+            double rest = bounds.resource(v);
+            if (rest == Double.POSITIVE_INFINITY) continue; // não alcança o destino
+
+            double w = 1.0;
+            if (sa.guided) {
+                // Custo reduzido >= 0: quanto o arco se afasta do caminho mais barato até o destino
+                w = 1.0 / (1.0 + Math.max(0, g.cost[a] + bounds.cost(v) - bounds.cost(u)));
+            }
+            // Uma sorteada só serve aos dois reservatórios (cada um continua uniforme/ponderado)
+            double x = sa.rand.nextDouble();
+            weightAny += w;
+            if (x * weightAny < w) any = i;
+            if (spent + g.resource[a] + rest <= sa.R) {
+                weightFeasible += w;
+                if (x * weightFeasible < w) feasible = i;
+            }
+        }
+        return feasible >= 0 ? feasible : any;
+    }
+}
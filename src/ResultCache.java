@@ -0,0 +1,204 @@
+import java.util.*;
+
+// Cache de resultados por par (origem, destino) com reaproveitamento por dominância.
+// Para cada par guarda uma pequena fronteira de Pareto (recurso, custo) de caminhos já encontrados.
+// Uma consulta com orçamento R' pode ser respondida por qualquer caminho com recurso <= R':
+//  - se esse caminho foi provado ótimo para algum R0 >= R', ele também é ótimo para R' (hit);
+//  - senão serve de solução inicial (warm start) para o SA.
+// LRU por par, limitado pelo total de nós armazenados nos caminhos.
+// Quando o grafo muda (update), só os caminhos tocados pelo lote são reavaliados ou descartados;
+// as provas de otimalidade caem só se o lote puder ter barateado algum outro caminho.
+public class ResultCache {
+    static final int MAX_ENTRIES_PER_PAIR = 8;
+
+    static class Entry {
+        final int[] path;
+        final double cost;
+        final double resource;
+        // Maior R para o qual este caminho foi provado ótimo (-1 se veio de heurística).
+        double provenBudget;
+
+        Entry(int[] path, double cost, double resource, double provenBudget) {
+            this.path = path;
+            this.cost = cost;
+            this.resource = resource;
+            this.provenBudget = provenBudget;
+        }
+    }
+
+    // Resultado da consulta: 'optimal' indica que 'entry' já é a resposta exata para R'.
+    static class Lookup {
+        final Entry entry;
+        final boolean optimal;
+
+        Lookup(Entry entry, boolean optimal) {
+            this.entry = entry;
+            this.optimal = optimal;
+        }
+    }
+
+    private final long capacityNodes;
+    private long storedNodes = 0;
+    private final LinkedHashMap<Long, List<Entry>> pairs = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Métricas
+    long hits = 0;
+    long warmStarts = 0;
+    long misses = 0;
+    long evictions = 0;
+    long invalidations = 0; // entradas descartadas porque o grafo mudou
+    long repriced = 0;   // caminhos reavaliados após update (arco alterado no caminho)
+    long demoted = 0;    // provas de otimalidade descartadas após update
+
+    // Versão do grafo (VersionedGraph) a que as entradas se referem; put de versão antiga é ignorado.
+    private long version = 0;
+
+    public ResultCache(long capacityNodes) {
+        this.capacityNodes = capacityNodes;
+    }
+
+    private static long key(int source, int target) {
+        return ((long) source << 32) | (target & 0xffffffffL);
+    }
+
+    // Consulta resolvida sobre a versão 'graphVersion' do grafo: entradas de outra versão não servem.
+    public synchronized Lookup lookup(int source, int target, double R, long graphVersion) {
+        if (graphVersion != version) {
+            misses++;
+            return null;
+        }
+        return lookup(source, target, R);
+    }
+
+    public synchronized Lookup lookup(int source, int target, double R) {
+        List<Entry> list = pairs.get(key(source, target));
+        Entry best = null;
+        boolean optimal = false;
+        if (list != null) {
+            for (Entry e : list) {
+                if (e.resource > R) continue;
+                // Ótimo para um orçamento maior e viável aqui => ótimo aqui também
+                if (e.provenBudget >= R) {
+                    best = e;
+                    optimal = true;
+                    break;
+                }
+                if (best == null || e.cost < best.cost) best = e;
+            }
+        }
+        if (best == null) {
+            misses++;
+            return null;
+        }
+        if (optimal) hits++;
+        else warmStarts++;
+        return new Lookup(best, optimal);
+    }
+
+    // Registra um caminho que chega ao destino; provenBudget >= 0 quando é o ótimo provado para esse R.
+    public synchronized void put(int source, int target, Solution s, double provenBudget) {
+        put(source, target, s, provenBudget, version);
+    }
+
+    // Resultado calculado sobre a versão 'graphVersion'; se o grafo já mudou desde então, não entra.
+    public synchronized void put(int source, int target, Solution s, double provenBudget, long graphVersion) {
+        if (graphVersion != version) return;
+        if (!s.reachesTarget || s.size() > capacityNodes) return;
+        long k = key(source, target);
+        List<Entry> list = pairs.computeIfAbsent(k, x -> new ArrayList<>(2));
+
+        for (Iterator<Entry> it = list.iterator(); it.hasNext(); ) {
+            Entry e = it.next();
+            if (e.cost <= s.cost && e.resource <= s.resource) {
+                // Já dominado: só aproveita a prova de otimalidade, se for mais forte
+                // (mesmo custo com recurso <= o de s: e é ótimo onde s foi provado)
+                if (e.cost == s.cost) {
+                    e.provenBudget = Math.max(e.provenBudget, provenBudget);
+                }
+                return;
+            }
+            if (s.cost <= e.cost && s.resource <= e.resource) {
+                // Mesmo custo com recurso <= e: ótimo para todo R em que e foi provado, herda a prova
+                if (s.cost == e.cost) provenBudget = Math.max(provenBudget, e.provenBudget);
+                storedNodes -= e.path.length;
+                it.remove();
+            }
+        }
+        if (list.size() >= MAX_ENTRIES_PER_PAIR) {
+            // Descarta o de maior recurso (o menos útil para orçamentos apertados)
+            Entry worst = Collections.max(list, Comparator.comparingDouble(e -> e.resource));
+            storedNodes -= worst.path.length;
+            list.remove(worst);
+        }
+        list.add(new Entry(Arrays.copyOf(s.path, s.size()), s.cost, s.resource, provenBudget));
+        storedNodes += s.size();
+
+        // Despeja pares menos usados até caber
+        Iterator<Map.Entry<Long, List<Entry>>> it = pairs.entrySet().iterator();
+        while (storedNodes > capacityNodes && it.hasNext()) {
+            Map.Entry<Long, List<Entry>> eldest = it.next();
+            if (eldest.getKey() == k) continue;
+            for (Entry e : eldest.getValue()) storedNodes -= e.path.length;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    // O grafo passou para a versão 'graphVersion' pelo lote 'up' ('improving' = GraphUpdate.canImprove).
+    // Caminhos tocados pelo lote são reavaliados em 'g' (ou descartados se perderam um arco) e deixam de
+    // ser provados; os demais mantêm a prova a menos que o lote possa ter barateado outro caminho.
+    public synchronized void update(GraphUpdate up, Graph g, boolean improving, long graphVersion) {
+        version = graphVersion;
+        for (Iterator<List<Entry>> pit = pairs.values().iterator(); pit.hasNext(); ) {
+            List<Entry> list = pit.next();
+            for (ListIterator<Entry> it = list.listIterator(); it.hasNext(); ) {
+                Entry e = it.next();
+                if (up.touches(e.path, e.path.length)) {
+                    Entry moved = reprice(e, g);
+                    if (moved == null) {
+                        storedNodes -= e.path.length;
+                        it.remove();
+                        invalidations++;
+                    } else {
+                        it.set(moved);
+                        repriced++;
+                    }
+                } else if (improving && e.provenBudget >= 0) {
+                    e.provenBudget = -1;
+                    demoted++;
+                }
+            }
+            if (list.isEmpty()) pit.remove();
+        }
+    }
+
+    // Mesmo caminho com custo/recurso do grafo novo (sem prova); null se algum arco sumiu.
+    private static Entry reprice(Entry e, Graph g) {
+        double cost = 0, resource = 0;
+        for (int i = 0; i + 1 < e.path.length; i++) {
+            int a = g.findArc(e.path[i], e.path[i + 1]);
+            if (a < 0) return null;
+            cost += g.cost[a];
+            resource += g.resource[a];
+        }
+        return new Entry(e.path, cost, resource, -1);
+    }
+
+    // O grafo mudou: nenhum caminho guardado é mais confiável.
+    public synchronized void invalidate() {
+        for (List<Entry> list : pairs.values()) invalidations += list.size();
+        pairs.clear();
+        storedNodes = 0;
+    }
+
+    public synchronized int pairCount() {
+        return pairs.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(Locale.US,
+                "cache: pares=%d nos=%d hits=%d warm=%d misses=%d evictions=%d invalidacoes=%d reavaliados=%d rebaixados=%d",
+                pairs.size(), storedNodes, hits, warmStarts, misses, evictions, invalidations, repriced, demoted);
+    }
+}
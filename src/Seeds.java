@@ -0,0 +1,33 @@
+// Semente única por execução (--seed=N) e sementes derivadas dela para cada componente.
+// Cada gerador/cadeia/consulta recebe derive(seed, nome ou índice): o fluxo dele não depende da ordem
+// em que os outros foram criados nem de quantos números eles consumiram. Com a mesma semente, geração,
+// solução inicial e vizinhanças se repetem; só o que for limitado por relógio (prazos) pode variar.
+public class Seeds {
+    // Semente de --seed=N; sem o argumento, sorteia uma (imprima-a para poder reproduzir a execução).
+    public static long fromArgs(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith("--seed=")) return Long.parseLong(arg.substring("--seed=".length()));
+        }
+        return new java.util.SplittableRandom().nextLong();
+    }
+
+    // Argumentos sem as opções "--..." (para programas com parâmetros posicionais).
+    public static String[] positional(String[] args) {
+        return java.util.Arrays.stream(args).filter(a -> !a.startsWith("--")).toArray(String[]::new);
+    }
+
+    public static long derive(long seed, String component) {
+        return mix(seed ^ mix(component.hashCode()));
+    }
+
+    public static long derive(long seed, long index) {
+        return mix(seed ^ mix(index + 0x9E3779B97F4A7C15L));
+    }
+
+    // Finalizador do SplitMix64: espalha bem sementes vizinhas
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
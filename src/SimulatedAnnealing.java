@@ -1,150 +1,417 @@
-import java.util.*;
-
-public class SimulatedAnnealing {
-    Graph g;
-    int source, target;
-    double R;
-
-    double penalty = 100.0; 
-    double temp = 1000.0;   
-    double cooling = 0.99;  
-    double tempMin = 0.01;  
-    int maxIter = 50000;    
-    public int iterationsDone = 0;
-
-    Random rand = new Random();
-
-    public SimulatedAnnealing(Graph g, int source, int target, double R) {
-        this.g = g;
-        this.source = source;
-        this.target = target;
-        this.R = R;
-    }
-
-    public Solution initialSolution() {
-        for(int i=0; i<1000; i++) { 
-             List<Integer> path = generateRandomPath();
-             if(path != null && !path.isEmpty() && path.get(path.size()-1) == target) {
-                 Solution s = new Solution(path);
-                 s.evaluate(g, R, penalty, target);
-                 return s;
-             }
-        }
-        
-        // retorna start node isolado (fitness horrível) se falhar, só pra não crashar o pipeline.
-        System.out.println("Aviso: Solução inicial válida não encontrada.");
-        Solution s = new Solution(new ArrayList<>(Collections.singletonList(source)));
-        s.evaluate(g, R, penalty, target);
-        return s;
-    }
-
-    private List<Integer> generateRandomPath() {
-        List<Integer> path = new ArrayList<>();
-        path.add(source);
-        int current = source;
-        boolean[] visited = new boolean[g.n];
-        visited[source] = true;
-
-        while (current != target) {
-            List<Edge> neighbors = g.getNeighbors(current);
-            if (neighbors.isEmpty()) return null; 
-
-            List<Integer> validNeighbors = new ArrayList<>();
-            for(Edge e : neighbors) {
-                if(!visited[e.to]) validNeighbors.add(e.to);
-            }
-
-            if(validNeighbors.isEmpty()) return null; 
-
-            int next = validNeighbors.get(rand.nextInt(validNeighbors.size()));
-            visited[next] = true;
-            path.add(next);
-            current = next;
-        }
-        return path;
-    }
-
-    // Estratégia de Vizinhança
-    public Solution neighbor(Solution s) {
-        if (s.path.size() < 3) return initialSolution(); 
-
-        List<Integer> newPath = new ArrayList<>(s.path);
-
-        int i = rand.nextInt(newPath.size() - 1);
-        int j = rand.nextInt(newPath.size() - i) + i; 
-        
-        while(newPath.size() > i + 1) {
-            newPath.remove(newPath.size()-1);
-        }
-        
-        reconnectPath(newPath, target);
-
-        Solution ns = new Solution(newPath);
-        ns.evaluate(g, R, penalty, target);
-        return ns;
-    }
-
-    private void reconnectPath(List<Integer> path, int subTarget) {
-        int current = path.get(path.size()-1);
-        int steps = 0;
-        Set<Integer> visitedInPath = new HashSet<>(path);
-
-        while(current != subTarget && steps < g.n) {
-            List<Edge> neighbors = g.getNeighbors(current);
-            if(neighbors.isEmpty()) break;
-
-            List<Edge> candidates = new ArrayList<>();
-            for(Edge e : neighbors) {
-                if(!visitedInPath.contains(e.to)) candidates.add(e);
-            }
-            
-            if(candidates.isEmpty()) break;
-
-            Edge next = candidates.get(rand.nextInt(candidates.size()));
-            path.add(next.to);
-            visitedInPath.add(next.to);
-            current = next.to;
-            steps++;
-        }
-    }
-
-    public Solution run() {
-        Solution current = initialSolution();
-        Solution best = current;
-        
-        if(!current.reachesTarget) {
-             current = initialSolution();
-             best = current;
-        }
-
-        int iter = 0;
-        System.out.println("Iniciando SA... Temp Inicial: " + temp);
-
-        while (temp > tempMin && iter < maxIter) {
-            Solution next = neighbor(current);
-
-            double delta = next.fitness - current.fitness;
-
-            // Critério de Metropolis:
-            // Delta < 0: Melhora (Aceita)
-            // Delta > 0: Piora (Aceita com probabilidade e^(-delta/T))
-            if (delta < 0) {
-                current = next;
-                // Keep track do Best Global apenas se for viável
-                if (current.fitness < best.fitness && current.reachesTarget) {
-                    best = current;
-                    System.out.println("Nova melhor solução: " + best.fitness + " (Iter " + iter + ")");
-                }
-            } else {
-                if (Math.exp(-delta / temp) > rand.nextDouble()) {
-                    current = next;
-                }
-            }
-
-            temp *= cooling;
-            iter++;
-        }
-        this.iterationsDone = iter;
-        return best;
-    }
-}
\ No newline at end of file
+import java.util.*;
+
+public class SimulatedAnnealing {
+    Graph g;
+    int source, target;
+    double R;
+    // Grafos com K > 1 recursos: limite do recurso k em extraLimits[k - 1] (null = sem limites extras).
+    // A penalidade soma o excesso de todos; a construção guiada e o REPAIR olham só o recurso 0.
+    double[] extraLimits;
+
+    double penalty = 100.0;
+    double temp = 1000.0;             // T0 quando calibrate = false
+    double tempMin = 0.01;
+    int maxIter = 50000;
+    // Recuos da DFS de reconexão antes de desistir do vizinho. 0 = passeio sem recuo: vizinho que
+    // bate num beco é só rejeitado, e recuar costuma gerar desvios longos (mais caros de avaliar).
+    int maxBacktracks = 0;
+
+    // Resfriamento por ciclo de maxIter iterações. O padrão (geométrico com alpha automático) chega a
+    // tempMin no fim do ciclo; o antigo alpha fixo de 0.99 esfriava em ~1150 iterações e o resto do
+    // orçamento era desperdiçado.
+    CoolingSchedule schedule = new CoolingSchedule.Geometric();
+    // Calibra T0 pela escala da instância a partir de vizinhos amostrados da solução inicial.
+    boolean calibrate = true;
+    double initialAcceptance = 0.8;
+    int calibrationSamples = 100;
+    double t0;                        // temperatura inicial efetiva (calibrada ou 'temp')
+    double initialCost;               // custo da solução inicial da última start()
+    private double nanosPerMove;      // custo médio de um vizinho, medido na calibração
+    public int iterationsDone = 0;
+
+    boolean verbose = true;
+    // Sorteio do passeio ponderado pelo custo reduzido até o destino (em vez de uniforme).
+    boolean guided = false;
+
+    // Limites inferiores até o destino; podem ser compartilhados entre cadeias. O padrão é o exato
+    // (TargetBounds) mesmo com landmarks: a DFS aleatória depende do limite de recurso justo para
+    // achar caminhos que cabem em R, e com o do ALT vaga muito mais em grafos grandes.
+    LowerBounds bounds;
+
+    // Caminho para começar a busca no lugar do passeio aleatório (ex.: vindo do ResultCache).
+    int[] warmStart;
+
+    // Critérios de parada extras (prazo, qualidade alvo, estagnação, cancelamento); null = só o resfriamento.
+    StoppingRules stop;
+    StoppingRules.Reason stopReason = StoppingRules.Reason.NONE;
+    IncumbentListener listener;
+
+    SplittableRandom rand;
+
+    // Operadores de vizinhança com pesos adaptativos (ver Neighborhood)
+    Neighborhood moves;
+
+    // Contadores da execução; podem ser compartilhados (ex.: cadeias do ParallelAnnealing).
+    SolverMetrics metrics = new SolverMetrics();
+    // false: melhoras deste SA não entram em 'metrics' (rajadas do memético, que registra as da população)
+    boolean recordImprovements = true;
+    // Contagens locais ainda não repassadas a 'metrics' (ver flushMetrics)
+    private long pendingNeighbors, pendingDeadEnds;
+    private final long[] bandTries = new long[SolverMetrics.BANDS];
+    private final long[] bandHits = new long[SolverMetrics.BANDS];
+
+    // Estado da cadeia (ver start/advance)
+    private Solution current, next, best;
+    double temperature;
+    long accepted = 0;
+    int restarts = 0;
+    private int scheduleEnd;          // iteração em que o resfriamento corrente termina
+    private int lastImprovement;      // iteração da última melhora do best
+    private long startNanos;
+
+    // Marcação de visitados por época: incrementar 'epoch' "limpa" o vetor em O(1).
+    final int[] visitStamp;
+    private int epoch = 0;
+    private final RandomDfs dfs = new RandomDfs(this);
+    // Construção pelas duas pontas com landmarks (BidirectionalConstructor) no lugar da RandomDfs;
+    // os landmarks do grafo são calculados no primeiro uso.
+    boolean bidirectional = false;
+    private BidirectionalConstructor bidi;
+
+    public SimulatedAnnealing(Graph g, int source, int target, double R) {
+        this(g, source, target, R, new SplittableRandom());
+    }
+
+    public SimulatedAnnealing(Graph g, int source, int target, double R, SplittableRandom rand) {
+        this(g, source, target, R, rand, null);
+    }
+
+    public SimulatedAnnealing(Graph g, int source, int target, double R, SplittableRandom rand,
+            LowerBounds bounds) {
+        this.g = g;
+        this.rand = rand;
+        this.source = source;
+        this.target = target;
+        this.R = R;
+        g.build();
+        this.visitStamp = new int[g.n];
+        this.bounds = bounds != null ? bounds : new TargetBounds(g, target);
+        this.moves = new Neighborhood(this);
+    }
+
+    // Reaproveita a instância (buffers e vetor de visitados) para outra consulta no mesmo grafo.
+    public void reset(int source, int target, double R, LowerBounds bounds) {
+        this.source = source;
+        this.target = target;
+        this.R = R;
+        this.bounds = bounds != null ? bounds : new TargetBounds(g, target);
+        this.stop = null;
+        this.listener = null;
+        this.warmStart = null;
+    }
+
+    int nextEpoch() {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(visitStamp, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+
+    public Solution initialSolution() {
+        Solution s = new Solution(16);
+        initialSolution(s);
+        return s;
+    }
+
+    private void initialSolution(Solution out) {
+        // Sem caminho até o destino não adianta procurar (com caminho a DFS sempre acha um)
+        if (bounds.reaches(source) && generateRandomPath(out)) {
+            out.evaluate(g, R, extraLimits, penalty, target);
+            return;
+        }
+
+        // retorna start node isolado (fitness horrível) se falhar, só pra não crashar o pipeline.
+        if (verbose) System.out.println("Aviso: Solução inicial válida não encontrada.");
+        out.clear();
+        out.add(source);
+        out.evaluate(g, R, extraLimits, penalty, target);
+    }
+
+    // Caminho aleatório source -> target em 'out' (DFS com recuos ilimitados).
+    private boolean generateRandomPath(Solution out) {
+        out.clear();
+        out.add(source);
+        int stamp = nextEpoch();
+        visitStamp[source] = stamp;
+        boolean found = bidirectional
+                ? bidirectional().extend(out, target, null, 0, Integer.MAX_VALUE)
+                : dfs.extend(out, target, stamp, 0, Integer.MAX_VALUE);
+        if (!found) pendingDeadEnds++;
+        return found;
+    }
+
+    private BidirectionalConstructor bidirectional() {
+        if (bidi == null) bidi = new BidirectionalConstructor(g, g.landmarks(), rand);
+        // 'rand' pode ter sido trocado desde a criação (QueryService, memético): sempre o atual
+        bidi.rand = rand;
+        bidi.R = R;
+        return bidi;
+    }
+
+    // Estratégia de Vizinhança
+    public Solution neighbor(Solution s) {
+        Solution ns = new Solution(s.size());
+        neighbor(s, ns);
+        return ns;
+    }
+
+    // Versão sem alocação: escreve o vizinho de 's' no buffer 'out'.
+    public void neighbor(Solution s, Solution out) {
+        pendingNeighbors++;
+        if (s.size() < 3) {
+            moves.lastOperator = -1;
+            initialSolution(out);
+            return;
+        }
+        // O prefixo até o ponto alterado não muda: só a parte nova é somada (evaluateTail)
+        moves.apply(s, out);
+    }
+
+    // Refaz o caminho de path.last() até subTarget evitando o prefixo; desiste (vizinho sem
+    // destino) depois de maxBacktracks recuos.
+    void reconnectPath(Solution path, int subTarget) {
+        // Recurso já gasto no prefixo (somas de prefixo copiadas em startFrom)
+        double used = path.validPrefix == path.size() ? path.prefixResource[path.size() - 1] : 0;
+        int stamp = nextEpoch();
+        for (int k = 0; k < path.size(); k++) {
+            visitStamp[path.get(k)] = stamp;
+        }
+        boolean found = bidirectional
+                ? bidirectional().extend(path, subTarget, visitStamp, stamp, maxBacktracks)
+                : dfs.extend(path, subTarget, stamp, used, maxBacktracks);
+        if (!found) pendingDeadEnds++;
+    }
+
+    // Prepara a cadeia para ser executada em fatias via advance() (usado pelo modelo de ilhas).
+    public void start() {
+        // Buffers duplos: o candidato é escrito em 'next' e, se aceito, trocam de papel.
+        // Reaproveitados entre execuções (ver reset).
+        if (current == null) {
+            current = new Solution(16);
+            next = new Solution(16);
+            best = new Solution(16);
+        }
+        if (warmStart != null && warmStart.length > 0 && warmStart[0] == source) {
+            current.clear();
+            for (int v : warmStart) current.add(v);
+            current.evaluate(g, R, extraLimits, penalty, target);
+        } else {
+            initialSolution(current);
+        }
+
+        if(!current.reachesTarget) {
+             initialSolution(current);
+        }
+
+        best.copyFrom(current);
+        initialCost = current.cost;
+
+        moves.resetWeights();
+        t0 = calibrate ? calibrateTemperature() : temp;
+        iterationsDone = 0;
+        accepted = 0;
+        restarts = 0;
+        beginCycle(cycleLength());
+        lastImprovement = 0;
+        stopReason = StoppingRules.Reason.NONE;
+        startNanos = System.nanoTime();
+        if (best.reachesTarget) {
+            if (recordImprovements) metrics.recordImprovement(best.fitness, 0);
+            if (listener != null) listener.onImprovement(best, 0, 0);
+        }
+        if (verbose) System.out.println("Iniciando SA... Temp Inicial: " + t0);
+    }
+
+    // T0 tal que a piora média entre a solução corrente e seus vizinhos seja aceita com
+    // probabilidade initialAcceptance. Vizinhos que não chegam ao destino ficam de fora
+    // (a penalidade fixa deles distorceria a média).
+    private double calibrateTemperature() {
+        double sum = 0;
+        int count = 0;
+        long t = System.nanoTime();
+        for (int k = 0; k < calibrationSamples; k++) {
+            neighbor(current, next);
+            double delta = next.fitness - current.fitness;
+            if (delta > 0 && next.reachesTarget) {
+                sum += delta;
+                count++;
+            }
+        }
+        nanosPerMove = (double) (System.nanoTime() - t) / Math.max(1, calibrationSamples);
+        if (count == 0) return temp;
+        return Math.max(CoolingSchedule.initialTemperature(sum / count, initialAcceptance), tempMin * 10);
+    }
+
+    // Com prazo, o ciclo tem que caber no tempo que resta (estimado pelo custo dos vizinhos da
+    // calibração); senão a busca chega ao prazo ainda na temperatura inicial.
+    private int cycleLength() {
+        if (stop == null || stop.deadlineNanos == Long.MAX_VALUE || nanosPerMove <= 0) return maxIter;
+        double fits = (stop.deadlineNanos - System.nanoTime()) / nanosPerMove;
+        return (int) Math.max(Math.min(maxIter, fits), Math.min(maxIter, 1000));
+    }
+
+    private void beginCycle(int iterations) {
+        temperature = t0;
+        scheduleEnd = iterationsDone + iterations;
+        schedule.init(t0, tempMin, iterations);
+    }
+
+    // Executa até 'iterations' iterações; retorna false quando o resfriamento acabou
+    // ou algum critério de 'stop' foi atingido (ver stopReason).
+    public boolean advance(int iterations) {
+        int iter = iterationsDone;
+        int limit = (int) Math.min((long) iter + iterations, scheduleEnd);
+        StoppingRules rules = stop;
+        CoolingSchedule sched = schedule;
+        long accepted0 = accepted;
+        long alloc0 = SolverMetrics.threadAllocatedBytes();
+        int band = 0;
+
+        while (temperature > tempMin && iter < limit) {
+            if (rules != null) {
+                // Relógio e cancelamento só a cada 256 iterações
+                if ((iter & 255) == 0) {
+                    if (rules.isCancelled()) {
+                        stopReason = StoppingRules.Reason.CANCELLED;
+                        break;
+                    }
+                    if (System.nanoTime() > rules.deadlineNanos) {
+                        stopReason = StoppingRules.Reason.DEADLINE;
+                        break;
+                    }
+                }
+                if (rules.stallIterations > 0 && iter - lastImprovement >= rules.stallIterations) {
+                    stopReason = StoppingRules.Reason.STALL;
+                    break;
+                }
+            }
+            // Faixa de temperatura só é recalculada de vez em quando (usa log)
+            if ((iter & 63) == 0) band = SolverMetrics.band(temperature, t0, tempMin);
+            neighbor(current, next);
+
+            double delta = next.fitness - current.fitness;
+            boolean moved = false;
+            boolean improved = false;
+
+            // Critério de Metropolis:
+            // Delta < 0: Melhora (Aceita)
+            // Delta > 0: Piora (Aceita com probabilidade e^(-delta/T))
+            if (delta < 0) {
+                Solution tmp = current;
+                current = next;
+                next = tmp;
+                accepted++;
+                moved = true;
+                // Keep track do Best Global apenas se for viável
+                if (current.fitness < best.fitness && current.reachesTarget) {
+                    best.copyFrom(current);
+                    lastImprovement = iter;
+                    improved = true;
+                    if (recordImprovements) metrics.recordImprovement(best.fitness, iter);
+                    if (listener != null) listener.onImprovement(best, iter, System.nanoTime() - startNanos);
+                    if (rules != null && best.fitness <= rules.targetFitness) {
+                        stopReason = StoppingRules.Reason.TARGET_QUALITY;
+                        iter++;
+                        break;
+                    }
+                }
+            } else {
+                if (Math.exp(-delta / temperature) > rand.nextDouble()) {
+                    Solution tmp = current;
+                    current = next;
+                    next = tmp;
+                    accepted++;
+                    moved = true;
+                }
+            }
+
+            bandTries[band]++;
+            if (moved) bandHits[band]++;
+            moves.feedback(improved ? Neighborhood.NEW_BEST
+                    : delta < 0 ? Neighborhood.IMPROVED
+                    : moved ? Neighborhood.ACCEPTED : Neighborhood.REJECTED);
+            temperature = sched.next(temperature, moved, improved);
+            iter++;
+        }
+        flushMetrics(iter - iterationsDone, accepted - accepted0, alloc0);
+        this.iterationsDone = iter;
+        if (stopReason != StoppingRules.Reason.NONE) return false;
+        if (temperature > tempMin && iter < scheduleEnd) return true;
+        stopReason = StoppingRules.Reason.SCHEDULE;
+        return false;
+    }
+
+    private void flushMetrics(int iterations, long acceptedNow, long alloc0) {
+        SolverMetrics m = metrics;
+        m.iterations.add(iterations);
+        m.accepted.add(acceptedNow);
+        m.neighbors.add(pendingNeighbors);
+        m.deadEnds.add(pendingDeadEnds);
+        pendingNeighbors = 0;
+        pendingDeadEnds = 0;
+        for (int k = 0; k < bandTries.length; k++) {
+            if (bandTries[k] == 0) continue;
+            m.bandAttempts[k].add(bandTries[k]);
+            m.bandAccepted[k].add(bandHits[k]);
+            bandTries[k] = 0;
+            bandHits[k] = 0;
+        }
+        moves.flushTo(m);
+        if (alloc0 >= 0) m.allocatedBytes.add(SolverMetrics.threadAllocatedBytes() - alloc0);
+    }
+
+    // Modo anytime: roda até um critério de 'rules' ser atingido e avisa 'listener' a cada melhora.
+    // Se o resfriamento acabar antes, reaquece a partir do melhor caminho (novo ciclo, de até maxIter
+    // iterações), para que o orçamento de tempo seja todo aproveitado. rules == null: um ciclo só.
+    public Solution solve(StoppingRules rules, IncumbentListener listener) {
+        this.stop = rules;
+        this.listener = listener;
+        metrics.begin();
+        start();
+        while (!advance(maxIter)) {
+            if (stopReason != StoppingRules.Reason.SCHEDULE || rules == null || !rules.isBounded()) break;
+            restarts++;
+            metrics.restarts.increment();
+            current.copyFrom(best);
+            beginCycle(cycleLength());
+            stopReason = StoppingRules.Reason.NONE;
+        }
+        metrics.end();
+        if (verbose) System.out.println("SA: melhor=" + best.fitness + " (" + stopReason + ") " + metrics);
+        return best;
+    }
+
+    // Migração: passa a explorar a partir de 's' (se for melhor que a solução corrente).
+    public boolean adopt(Solution s) {
+        if (s.fitness >= current.fitness) return false;
+        current.copyFrom(s);
+        if (current.fitness < best.fitness && current.reachesTarget) {
+            best.copyFrom(current);
+        }
+        return true;
+    }
+
+    public Solution best() {
+        return best;
+    }
+
+    public Solution run() {
+        metrics.begin();
+        start();
+        advance(maxIter);
+        metrics.end();
+        if (verbose) System.out.println("SA: melhor=" + best.fitness + " " + metrics);
+        return best;
+    }
+}
@@ -1,59 +1,282 @@
-import java.util.*;
-
-public class Solution {
-    List<Integer> path;
-    double cost;
-    double resource;
-    double fitness;
-    boolean reachesTarget; 
-
-    public Solution(List<Integer> path) {
-        this.path = new ArrayList<>(path);
-    }
-
-    public void evaluate(Graph g, double R, double penalty, int target) {
-        cost = 0;
-        resource = 0;
-        reachesTarget = false;
-
-        if (path.isEmpty()) {
-            fitness = Double.MAX_VALUE;
-            return;
-        }
-        if (path.get(path.size() - 1) == target) {
-            reachesTarget = true;
-        }
-
-        for (int i = 0; i < path.size() - 1; i++) {
-            int u = path.get(i);
-            int v = path.get(i + 1);
-            boolean edgeFound = false;
-
-            for (Edge e : g.getNeighbors(u)) {
-                if (e.to == v) {
-                    cost += e.cost;
-                    resource += e.resource;
-                    edgeFound = true;
-                    break;
-                }
-            }
-            // Se o caminho tiver uma aresta inexistente (erro de lógica), penaliza
-            if (!edgeFound) {
-                fitness = Double.MAX_VALUE; 
-                return;
-            }
-        }
-
-        fitness = cost;
-
-        // Penalidade por violação de recurso 
-        if (resource > R) {
-            fitness += penalty * (resource - R);
-        }
-
-        // Penalidade se não chegar no destino 
-        if (!reachesTarget) {
-            fitness += 1000000;
-        }
-    }
-}
\ No newline at end of file
+import java.util.*;
+
+public class Solution {
+    // Caminho em vetor primitivo: só as primeiras 'length' posições valem.
+    int[] path;
+    int length;
+    double cost;
+    double resource;
+    double fitness;
+    boolean reachesTarget;
+
+    // Somas de prefixo: prefixCost[k] e prefixResource[k] acumulam os arcos de path[0] até path[k].
+    // Só as primeiras 'validPrefix' posições são confiáveis (o resto fica lixo se houver arco inexistente).
+    double[] prefixCost;
+    double[] prefixResource;
+    int validPrefix = 0;
+
+    // Recursos 1..K-1, só quando o grafo tem K > 1 (criados na primeira avaliação): totais e
+    // somas de prefixo por coluna, como resource/prefixResource para o recurso 0.
+    double[] extraResource;
+    double[][] prefixExtra;
+
+    public Solution(int capacity) {
+        capacity = Math.max(capacity, 4);
+        path = new int[capacity];
+        prefixCost = new double[capacity];
+        prefixResource = new double[capacity];
+    }
+
+    public Solution(List<Integer> path) {
+        this(path.size());
+        for (int v : path) add(v);
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public int get(int i) {
+        return path[i];
+    }
+
+    public int last() {
+        return path[length - 1];
+    }
+
+    public void clear() {
+        length = 0;
+        validPrefix = 0;
+    }
+
+    public void add(int v) {
+        if (length == path.length) grow(length * 2);
+        path[length++] = v;
+    }
+
+    // Corta o caminho mantendo path[0..newLength-1]; as somas de prefixo continuam válidas até ali.
+    public void truncate(int newLength) {
+        length = newLength;
+        validPrefix = Math.min(validPrefix, newLength);
+    }
+
+    private void grow(int capacity) {
+        path = Arrays.copyOf(path, capacity);
+        prefixCost = Arrays.copyOf(prefixCost, capacity);
+        prefixResource = Arrays.copyOf(prefixResource, capacity);
+        if (prefixExtra != null) {
+            for (int k = 0; k < prefixExtra.length; k++) prefixExtra[k] = Arrays.copyOf(prefixExtra[k], capacity);
+        }
+    }
+
+    private void ensureExtra(int columns) {
+        if (prefixExtra != null && prefixExtra.length == columns) return;
+        extraResource = new double[columns];
+        prefixExtra = new double[columns][path.length];
+        validPrefix = Math.min(validPrefix, 1);
+    }
+
+    // Recurso k do caminho (0 = resource).
+    public double resource(int k) {
+        return k == 0 ? resource : extraResource[k - 1];
+    }
+
+    // Respeita R no recurso 0 e extraLimits[k - 1] no recurso k (extraLimits null = sem limites extras).
+    public boolean withinLimits(double R, double[] extraLimits) {
+        if (resource > R) return false;
+        if (extraLimits != null) {
+            for (int k = 0; k < extraLimits.length; k++) {
+                if (extraResource[k] > extraLimits[k]) return false;
+            }
+        }
+        return true;
+    }
+
+    // Copia path[0..keep] e as somas de prefixo de 'other' para este buffer (sem alocar em regime).
+    public void startFrom(Solution other, int keep) {
+        if (path.length < other.path.length) grow(other.path.length);
+        System.arraycopy(other.path, 0, path, 0, keep + 1);
+        int valid = Math.min(keep + 1, other.validPrefix);
+        System.arraycopy(other.prefixCost, 0, prefixCost, 0, valid);
+        System.arraycopy(other.prefixResource, 0, prefixResource, 0, valid);
+        if (other.prefixExtra != null) {
+            ensureExtra(other.prefixExtra.length);
+            for (int k = 0; k < prefixExtra.length; k++) {
+                System.arraycopy(other.prefixExtra[k], 0, prefixExtra[k], 0, valid);
+            }
+        }
+        length = keep + 1;
+        validPrefix = valid;
+    }
+
+    public void copyFrom(Solution other) {
+        startFrom(other, other.length - 1);
+        cost = other.cost;
+        resource = other.resource;
+        if (other.extraResource != null) {
+            System.arraycopy(other.extraResource, 0, extraResource, 0, extraResource.length);
+        }
+        fitness = other.fitness;
+        reachesTarget = other.reachesTarget;
+    }
+
+    public List<Integer> getPath() {
+        List<Integer> list = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) list.add(path[i]);
+        return list;
+    }
+
+    public void evaluate(Graph g, double R, double penalty, int target) {
+        evaluate(g, R, null, penalty, target);
+    }
+
+    // Com K > 1: extraLimits[k - 1] é o limite do recurso k (null = recursos extras sem limite).
+    public void evaluate(Graph g, double R, double[] extraLimits, double penalty, int target) {
+        validPrefix = 0;
+        evaluateTail(g, R, extraLimits, penalty, target);
+    }
+
+    // Avaliação incremental: path[0..keep] é idêntico ao de 'parent', então copia as somas de prefixo
+    // dele e só percorre a cauda nova. Com parent == null equivale à avaliação completa.
+    public void evaluateFrom(Solution parent, int keep, Graph g, double R, double penalty, int target) {
+        evaluateFrom(parent, keep, g, R, null, penalty, target);
+    }
+
+    public void evaluateFrom(Solution parent, int keep, Graph g, double R, double[] extraLimits, double penalty,
+            int target) {
+        validPrefix = 0;
+        if (parent != null && parent.validPrefix > 0) {
+            validPrefix = Math.min(keep + 1, parent.validPrefix);
+            System.arraycopy(parent.prefixCost, 0, prefixCost, 0, validPrefix);
+            System.arraycopy(parent.prefixResource, 0, prefixResource, 0, validPrefix);
+            if (parent.prefixExtra != null) {
+                ensureExtra(parent.prefixExtra.length);
+                for (int k = 0; k < prefixExtra.length; k++) {
+                    System.arraycopy(parent.prefixExtra[k], 0, prefixExtra[k], 0, validPrefix);
+                }
+            }
+        }
+        evaluateTail(g, R, extraLimits, penalty, target);
+    }
+
+    public void evaluateTail(Graph g, double R, double penalty, int target) {
+        evaluateTail(g, R, null, penalty, target);
+    }
+
+    // Retoma a soma a partir do último prefixo válido (ver startFrom/truncate).
+    public void evaluateTail(Graph g, double R, double[] extraLimits, double penalty, int target) {
+        if (g.extraResource != null) {
+            evaluateTailMulti(g, R, extraLimits, penalty, target);
+            return;
+        }
+        cost = 0;
+        resource = 0;
+        reachesTarget = false;
+
+        if (length == 0) {
+            validPrefix = 0;
+            fitness = Double.MAX_VALUE;
+            return;
+        }
+        if (path[length - 1] == target) {
+            reachesTarget = true;
+        }
+
+        if (validPrefix == 0) {
+            prefixCost[0] = 0;
+            prefixResource[0] = 0;
+            validPrefix = 1;
+        }
+        int start = validPrefix - 1;
+        cost = prefixCost[start];
+        resource = prefixResource[start];
+
+        for (int i = start; i < length - 1; i++) {
+            int a = g.findArc(path[i], path[i + 1]);
+
+            // Se o caminho tiver uma aresta inexistente (erro de lógica), penaliza
+            if (a < 0) {
+                fitness = Double.MAX_VALUE;
+                return;
+            }
+            cost += g.cost[a];
+            resource += g.resource[a];
+            prefixCost[i + 1] = cost;
+            prefixResource[i + 1] = resource;
+            validPrefix = i + 2;
+        }
+
+        fitness = cost;
+
+        // Penalidade por violação de recurso
+        if (resource > R) {
+            fitness += penalty * (resource - R);
+        }
+
+        // Penalidade se não chegar no destino
+        if (!reachesTarget) {
+            fitness += 1000000;
+        }
+    }
+
+    // Mesma avaliação com K > 1: cada recurso extra tem a sua coluna de prefixos e a penalidade
+    // soma o excesso de todos os limites violados.
+    private void evaluateTailMulti(Graph g, double R, double[] extraLimits, double penalty, int target) {
+        int extras = g.extraResource.length;
+        ensureExtra(extras);
+        cost = 0;
+        resource = 0;
+        Arrays.fill(extraResource, 0);
+        reachesTarget = false;
+
+        if (length == 0) {
+            validPrefix = 0;
+            fitness = Double.MAX_VALUE;
+            return;
+        }
+        if (path[length - 1] == target) {
+            reachesTarget = true;
+        }
+
+        if (validPrefix == 0) {
+            prefixCost[0] = 0;
+            prefixResource[0] = 0;
+            for (int k = 0; k < extras; k++) prefixExtra[k][0] = 0;
+            validPrefix = 1;
+        }
+        int start = validPrefix - 1;
+        cost = prefixCost[start];
+        resource = prefixResource[start];
+        for (int k = 0; k < extras; k++) extraResource[k] = prefixExtra[k][start];
+
+        for (int i = start; i < length - 1; i++) {
+            int a = g.findArc(path[i], path[i + 1]);
+            if (a < 0) {
+                fitness = Double.MAX_VALUE;
+                return;
+            }
+            cost += g.cost[a];
+            resource += g.resource[a];
+            prefixCost[i + 1] = cost;
+            prefixResource[i + 1] = resource;
+            for (int k = 0; k < extras; k++) {
+                extraResource[k] += g.extraResource[k][a];
+                prefixExtra[k][i + 1] = extraResource[k];
+            }
+            validPrefix = i + 2;
+        }
+
+        fitness = cost;
+        if (resource > R) {
+            fitness += penalty * (resource - R);
+        }
+        if (extraLimits != null) {
+            for (int k = 0; k < extras; k++) {
+                if (extraResource[k] > extraLimits[k]) fitness += penalty * (extraResource[k] - extraLimits[k]);
+            }
+        }
+        if (!reachesTarget) {
+            fitness += 1000000;
+        }
+    }
+}
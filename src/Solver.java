@@ -0,0 +1,250 @@
+import java.util.*;
+import java.util.function.Function;
+
+// Estratégia de solução do PCMRC: recebe a instância (grafo + consulta) e devolve o melhor caminho com as
+// estatísticas da execução. Main e BenchmarkRunner só usam esta interface, então uma otimização feita num
+// solver vale para os dois e as estratégias são comparadas sempre do mesmo jeito.
+// Implementações registradas por nome: "sa", "exact", "lagrangian", "parallel", "memetic" (ver
+// byName/register).
+public interface Solver {
+    String name();
+
+    Result solve(Instance inst);
+
+    // Configuração comum; cada solver usa o que fizer sentido para ele.
+    class Options {
+        public long seed = new SplittableRandom().nextLong();
+        public long budgetMillis = 0;   // 0 = sem limite de tempo (SA/parallel/memetic)
+        public String cooling;          // CoolingSchedule.byName; null = padrão do SA
+        public boolean bidirectional;   // SA/parallel/memetic: construção pelas duas pontas com landmarks
+        public int chains = 0;          // parallel/memetic: threads; 0 = uma por núcleo
+        public int maxLabels = 0;       // exact: 0 = padrão do LabelSettingSolver
+        public String label = "";       // rótulo das métricas
+    }
+
+    class Result {
+        public String solver;
+        public Solution best;
+        public double initialCost = Double.NaN;            // SA: custo da solução inicial
+        public double lowerBound = Double.NEGATIVE_INFINITY;
+        public boolean optimal;                            // ótimo (ou inviabilidade) provado
+        public long iterations;
+        public long timeMs;
+        public SolverMetrics metrics;                      // só SA/parallel/memetic
+
+        // Chega ao destino respeitando todos os limites da instância.
+        public boolean feasible(Instance inst) {
+            return best != null && best.reachesTarget && best.withinLimits(inst.R, inst.extraLimits);
+        }
+    }
+
+    static Solver byName(String name, Options options) {
+        Function<Options, Solver> factory = Registry.FACTORIES.get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("Solver desconhecido: " + name + " (disponíveis: " + names() + ")");
+        }
+        return factory.apply(options);
+    }
+
+    // Acrescenta (ou substitui) uma estratégia no registro.
+    static void register(String name, Function<Options, Solver> factory) {
+        Registry.FACTORIES.put(name, factory);
+    }
+
+    static Set<String> names() {
+        return Collections.unmodifiableSet(Registry.FACTORIES.keySet());
+    }
+
+    final class Registry {
+        private static final Map<String, Function<Options, Solver>> FACTORIES =
+                Collections.synchronizedMap(new LinkedHashMap<>());
+
+        static {
+            FACTORIES.put("sa", Annealing::new);
+            FACTORIES.put("exact", Exact::new);
+            FACTORIES.put("lagrangian", Lagrangian::new);
+            FACTORIES.put("parallel", Parallel::new);
+            FACTORIES.put("memetic", Memetic::new);
+        }
+
+        private Registry() {
+        }
+    }
+
+    // Um ciclo de resfriamento do SimulatedAnnealing (cortado em budgetMillis, se houver).
+    class Annealing implements Solver {
+        final Options options;
+
+        public Annealing(Options options) {
+            this.options = options;
+        }
+
+        @Override
+        public String name() {
+            return "sa";
+        }
+
+        @Override
+        public Result solve(Instance inst) {
+            long start = System.currentTimeMillis();
+            SimulatedAnnealing sa = new SimulatedAnnealing(inst.graph, inst.source, inst.target, inst.R,
+                    new SplittableRandom(options.seed));
+            sa.extraLimits = inst.extraLimits;
+            sa.verbose = false;
+            if (options.cooling != null) sa.schedule = CoolingSchedule.byName(options.cooling);
+            if (options.budgetMillis > 0) sa.stop = StoppingRules.withBudget(options.budgetMillis);
+            sa.bidirectional = options.bidirectional;
+            sa.metrics.label = options.label;
+
+            Result r = new Result();
+            r.solver = name();
+            r.best = sa.run();
+            r.initialCost = sa.initialCost;
+            r.iterations = sa.iterationsDone;
+            r.metrics = sa.metrics;
+            r.timeMs = System.currentTimeMillis() - start;
+            return r;
+        }
+    }
+
+    // Label-setting exato (LabelSettingSolver); sem prova se estourar maxLabels.
+    class Exact implements Solver {
+        final Options options;
+
+        public Exact(Options options) {
+            this.options = options;
+        }
+
+        @Override
+        public String name() {
+            return "exact";
+        }
+
+        @Override
+        public Result solve(Instance inst) {
+            long start = System.currentTimeMillis();
+            LabelSettingSolver exact = new LabelSettingSolver(inst.graph, inst.source, inst.target, inst.R,
+                    inst.extraLimits, null);
+            if (options.maxLabels > 0) exact.maxLabels = options.maxLabels;
+
+            Result r = new Result();
+            r.solver = name();
+            r.best = exact.solve();
+            r.optimal = exact.optimal;
+            if (exact.optimal) r.lowerBound = r.best.reachesTarget ? r.best.cost : Double.POSITIVE_INFINITY;
+            r.iterations = exact.labelsSettled;
+            r.timeMs = System.currentTimeMillis() - start;
+            return r;
+        }
+    }
+
+    // Relaxação Lagrangiana (LagrangianSolver): limite inferior + melhor caminho viável visto.
+    class Lagrangian implements Solver {
+        final Options options;
+
+        public Lagrangian(Options options) {
+            this.options = options;
+        }
+
+        @Override
+        public String name() {
+            return "lagrangian";
+        }
+
+        @Override
+        public Result solve(Instance inst) {
+            long start = System.currentTimeMillis();
+            LagrangianSolver lagr = new LagrangianSolver(inst.graph, inst.source, inst.target, inst.R);
+            lagr.extraLimits = inst.extraLimits;
+
+            Result r = new Result();
+            r.solver = name();
+            r.best = lagr.solve();
+            r.lowerBound = lagr.lowerBound;
+            r.optimal = lagr.feasible ? lagr.gapPercent(r.best) < 1e-9 : lagr.lowerBound == Double.POSITIVE_INFINITY;
+            r.iterations = lagr.iterations;
+            r.timeMs = System.currentTimeMillis() - start;
+            return r;
+        }
+    }
+
+    // Cadeias independentes de SA em paralelo (ParallelAnnealing); 'cooling' não se aplica.
+    class Parallel implements Solver {
+        final Options options;
+
+        public Parallel(Options options) {
+            this.options = options;
+        }
+
+        @Override
+        public String name() {
+            return "parallel";
+        }
+
+        @Override
+        public Result solve(Instance inst) {
+            ParallelAnnealing pa = new ParallelAnnealing(inst.graph, inst.source, inst.target, inst.R);
+            pa.extraLimits = inst.extraLimits;
+            pa.seed = options.seed;
+            pa.bidirectional = options.bidirectional;
+            if (options.chains > 0) pa.chains = options.chains;
+            if (options.budgetMillis > 0) pa.stop = StoppingRules.withBudget(options.budgetMillis);
+            pa.metrics.label = options.label;
+
+            ParallelAnnealing.Result run;
+            try {
+                run = pa.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido", e);
+            }
+            Result r = new Result();
+            r.solver = name();
+            r.best = run.best;
+            for (ParallelAnnealing.ChainStats c : run.chains) r.iterations += c.iterations;
+            r.metrics = run.metrics;
+            r.timeMs = run.timeMs;
+            return r;
+        }
+    }
+
+    // População de caminhos com cruzamento e rajadas de SA (MemeticSolver).
+    class Memetic implements Solver {
+        final Options options;
+
+        public Memetic(Options options) {
+            this.options = options;
+        }
+
+        @Override
+        public String name() {
+            return "memetic";
+        }
+
+        @Override
+        public Result solve(Instance inst) {
+            MemeticSolver ms = new MemeticSolver(inst.graph, inst.source, inst.target, inst.R);
+            ms.extraLimits = inst.extraLimits;
+            ms.seed = options.seed;
+            ms.bidirectional = options.bidirectional;
+            if (options.chains > 0) ms.workers = options.chains;
+            if (options.budgetMillis > 0) ms.stop = StoppingRules.withBudget(options.budgetMillis);
+            ms.metrics.label = options.label;
+
+            MemeticSolver.Result run;
+            try {
+                run = ms.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido", e);
+            }
+            Result r = new Result();
+            r.solver = name();
+            r.best = run.best;
+            r.iterations = run.metrics.iterations.sum();
+            r.metrics = run.metrics;
+            r.timeMs = run.timeMs;
+            return r;
+        }
+    }
+}
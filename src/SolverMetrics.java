@@ -0,0 +1,207 @@
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Métricas de uma execução do SA (ou de várias: cadeias do ParallelAnnealing e o total do QueryService).
+// O laço do SA conta em campos locais e só repassa para cá no fim de cada advance(), então o custo
+// no caminho crítico é o de incrementar um long. Os contadores são LongAdder para que várias threads
+// possam somar no mesmo objeto sem disputa.
+// Exporta como JSON (toJson) e como evento JFR (SolverRunEvent, gravado em end()).
+public class SolverMetrics {
+    // Faixas de temperatura: 0 = T0 ... BANDS-1 = tempMin (escala logarítmica)
+    static final int BANDS = 10;
+    // Eventos JFR só com -Dpcmrc.jfr=true: inicializar o JFR custa ~200ms na primeira execução.
+    static final boolean JFR_EVENTS = Boolean.getBoolean("pcmrc.jfr");
+
+    String label = "";
+
+    final LongAdder iterations = new LongAdder();
+    final LongAdder neighbors = new LongAdder();
+    final LongAdder deadEnds = new LongAdder();      // construções/reconexões que desistiram
+    final LongAdder accepted = new LongAdder();
+    final LongAdder improvements = new LongAdder();  // novas melhores soluções
+    final LongAdder restarts = new LongAdder();
+    final LongAdder allocatedBytes = new LongAdder();
+    final LongAdder[] bandAttempts = adders(BANDS);
+    final LongAdder[] bandAccepted = adders(BANDS);
+    final LongAdder[] operatorApplied = adders(Neighborhood.NAMES.length);
+    final LongAdder[] operatorRewarded = adders(Neighborhood.NAMES.length);
+
+    private long startNanos, endNanos;
+    private double bestFitness;
+    private long timeToBestNanos;
+    private long bestIteration;
+    private SolverRunEvent event;
+
+    public SolverMetrics() {
+        begin();
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] a = new LongAdder[count];
+        for (int i = 0; i < count; i++) a[i] = new LongAdder();
+        return a;
+    }
+
+    // Zera e começa a cronometrar uma nova execução.
+    public void begin() {
+        for (LongAdder a : Arrays.asList(iterations, neighbors, deadEnds, accepted, improvements, restarts,
+                allocatedBytes)) {
+            a.reset();
+        }
+        for (int k = 0; k < BANDS; k++) {
+            bandAttempts[k].reset();
+            bandAccepted[k].reset();
+        }
+        for (int k = 0; k < operatorApplied.length; k++) {
+            operatorApplied[k].reset();
+            operatorRewarded[k].reset();
+        }
+        synchronized (this) {
+            bestFitness = Double.POSITIVE_INFINITY;
+            timeToBestNanos = -1;
+            bestIteration = -1;
+        }
+        startNanos = System.nanoTime();
+        endNanos = 0;
+        event = null;
+        if (JFR_EVENTS) {
+            event = new SolverRunEvent();
+            event.begin();
+        }
+    }
+
+    public void end() {
+        endNanos = System.nanoTime();
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.label = label;
+            event.iterations = iterations.sum();
+            event.neighbors = neighbors.sum();
+            event.deadEnds = deadEnds.sum();
+            event.acceptanceRatio = acceptanceRatio();
+            event.evaluationsPerSecond = evaluationsPerSecond();
+            event.bestFitness = bestFitness;
+            event.timeToBest = timeToBestNanos;
+            event.allocatedBytes = allocatedBytes.sum();
+            event.commit();
+        }
+    }
+
+    // Chamado só quando o best melhora (raro): pode sincronizar.
+    synchronized void recordImprovement(double fitness, long iteration) {
+        improvements.increment();
+        if (fitness < bestFitness) {
+            bestFitness = fitness;
+            bestIteration = iteration;
+            timeToBestNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    // Soma 'other' neste (ex.: total do serviço). O melhor/tempo até o melhor não se somam.
+    public void merge(SolverMetrics other) {
+        iterations.add(other.iterations.sum());
+        neighbors.add(other.neighbors.sum());
+        deadEnds.add(other.deadEnds.sum());
+        accepted.add(other.accepted.sum());
+        improvements.add(other.improvements.sum());
+        restarts.add(other.restarts.sum());
+        allocatedBytes.add(other.allocatedBytes.sum());
+        for (int k = 0; k < BANDS; k++) {
+            bandAttempts[k].add(other.bandAttempts[k].sum());
+            bandAccepted[k].add(other.bandAccepted[k].sum());
+        }
+        for (int k = 0; k < operatorApplied.length; k++) {
+            operatorApplied[k].add(other.operatorApplied[k].sum());
+            operatorRewarded[k].add(other.operatorRewarded[k].sum());
+        }
+    }
+
+    static int band(double t, double t0, double tMin) {
+        if (t >= t0) return 0;
+        if (t <= tMin) return BANDS - 1;
+        int b = (int) (BANDS * Math.log(t0 / t) / Math.log(t0 / tMin));
+        return Math.min(BANDS - 1, b);
+    }
+
+    public double elapsedMillis() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1e6;
+    }
+
+    public double acceptanceRatio() {
+        long it = iterations.sum();
+        return it > 0 ? (double) accepted.sum() / it : 0;
+    }
+
+    public double evaluationsPerSecond() {
+        double ms = elapsedMillis();
+        return ms > 0 ? neighbors.sum() * 1000.0 / ms : 0;
+    }
+
+    public synchronized double timeToBestMillis() {
+        return timeToBestNanos < 0 ? -1 : timeToBestNanos / 1e6;
+    }
+
+    // Bytes alocados pela thread atual (HotSpot); -1 se a JVM não suportar.
+    static long threadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"label\":\"").append(label.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        field(sb, "iterations", iterations.sum());
+        field(sb, "neighbors", neighbors.sum());
+        field(sb, "deadEnds", deadEnds.sum());
+        field(sb, "accepted", accepted.sum());
+        field(sb, "acceptanceRatio", acceptanceRatio());
+        field(sb, "improvements", improvements.sum());
+        field(sb, "restarts", restarts.sum());
+        field(sb, "elapsedMs", elapsedMillis());
+        field(sb, "evaluationsPerSec", evaluationsPerSecond());
+        synchronized (this) {
+            field(sb, "timeToBestMs", timeToBestMillis());
+            field(sb, "bestIteration", bestIteration);
+            field(sb, "bestFitness", bestFitness);
+        }
+        field(sb, "allocatedBytes", allocatedBytes.sum());
+
+        sb.append(",\"acceptanceByBand\":[");
+        for (int k = 0; k < BANDS; k++) {
+            long tries = bandAttempts[k].sum();
+            if (k > 0) sb.append(',');
+            sb.append(tries > 0 ? String.format(Locale.US, "%.4f", (double) bandAccepted[k].sum() / tries) : "null");
+        }
+        sb.append("],\"operators\":{");
+        for (int k = 0; k < operatorApplied.length; k++) {
+            if (k > 0) sb.append(',');
+            sb.append('"').append(Neighborhood.NAMES[k]).append("\":{\"applied\":").append(operatorApplied[k].sum())
+              .append(",\"rewarded\":").append(operatorRewarded[k].sum()).append('}');
+        }
+        return sb.append("}}").toString();
+    }
+
+    private static void field(StringBuilder sb, String name, long value) {
+        sb.append(",\"").append(name).append("\":").append(value);
+    }
+
+    private static void field(StringBuilder sb, String name, double value) {
+        sb.append(",\"").append(name).append("\":");
+        if (Double.isNaN(value) || Double.isInfinite(value)) sb.append("null");
+        else sb.append(String.format(Locale.US, "%.4f", value));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "iter=%d aceitação=%.3f becos=%d melhoras=%d avaliações/s=%.0f tempo-até-melhor=%.1fms alloc=%dB",
+                iterations.sum(), acceptanceRatio(), deadEnds.sum(), improvements.sum(), evaluationsPerSecond(),
+                timeToBestMillis(), allocatedBytes.sum());
+    }
+}
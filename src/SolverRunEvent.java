@@ -0,0 +1,38 @@
+import jdk.jfr.*;
+
+// Evento JFR de uma execução do solver (preenchido por SolverMetrics.end()).
+// Para gravar: java -Dpcmrc.jfr=true -XX:StartFlightRecording=filename=run.jfr ... e abrir no JDK Mission Control.
+@Name("pcmrc.SolverRun")
+@Label("Solver Run")
+@Category("PCMRC")
+@Description("Uma execução do Simulated Annealing")
+class SolverRunEvent extends Event {
+    @Label("Rótulo")
+    String label;
+
+    @Label("Iterações")
+    long iterations;
+
+    @Label("Vizinhos gerados")
+    long neighbors;
+
+    @Label("Becos sem saída")
+    long deadEnds;
+
+    @Label("Taxa de aceitação")
+    double acceptanceRatio;
+
+    @Label("Avaliações por segundo")
+    double evaluationsPerSecond;
+
+    @Label("Melhor fitness")
+    double bestFitness;
+
+    @Label("Tempo até a melhor")
+    @Timespan(Timespan.NANOSECONDS)
+    long timeToBest;
+
+    @Label("Bytes alocados")
+    @DataAmount
+    long allocatedBytes;
+}
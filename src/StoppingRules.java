@@ -0,0 +1,52 @@
+// Critérios de parada configuráveis para o modo anytime do SA.
+// Todos são opcionais e combinados por "ou": o primeiro atingido encerra a busca.
+// cancel() pode ser chamado de outra thread (cancelamento cooperativo: o SA confere
+// periodicamente e devolve a melhor solução que tiver).
+public class StoppingRules {
+    public enum Reason { NONE, SCHEDULE, DEADLINE, TARGET_QUALITY, STALL, CANCELLED }
+
+    long deadlineNanos = Long.MAX_VALUE;           // prazo absoluto em System.nanoTime()
+    double targetFitness = Double.NEGATIVE_INFINITY; // para ao achar solução viável com fitness <= alvo
+    int stallIterations = 0;                       // para após N iterações sem melhorar (0 = desligado)
+    private volatile boolean cancelled = false;
+
+    public static StoppingRules withBudget(long millis) {
+        StoppingRules r = new StoppingRules();
+        r.deadlineNanos = System.nanoTime() + millis * 1_000_000L;
+        return r;
+    }
+
+    public StoppingRules deadline(long nanoTime) {
+        this.deadlineNanos = nanoTime;
+        return this;
+    }
+
+    public StoppingRules targetFitness(double fitness) {
+        this.targetFitness = fitness;
+        return this;
+    }
+
+    public StoppingRules stallIterations(int iterations) {
+        this.stallIterations = iterations;
+        return this;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Prazo vencido ou cancelado (para laços que não precisam distinguir o motivo).
+    public boolean expired() {
+        return cancelled || System.nanoTime() > deadlineNanos;
+    }
+
+    // Algum critério garante que a busca termina? Prazo, estagnação ou cancelamento; o alvo de
+    // qualidade sozinho não, porque pode nunca ser atingido. Sem nenhum, o modo anytime não reaquece.
+    boolean isBounded() {
+        return deadlineNanos != Long.MAX_VALUE || stallIterations > 0 || cancelled;
+    }
+}
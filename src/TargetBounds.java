@@ -0,0 +1,79 @@
+import java.util.*;
+
+// Pré-processamento por destino: Dijkstra reverso a partir de 'target' em custo e em cada recurso.
+// minCost[v] / minResource[v] são limites inferiores exatos de qualquer caminho v -> target
+// (+infinito se v não alcança o destino). Não depende de origem nem de R, então pode ser
+// compartilhado entre consultas com o mesmo destino. Sem landmarks no grafo é o LowerBounds padrão.
+public class TargetBounds implements LowerBounds {
+    final int target;
+    final double[] minCost;
+    final double[] minResource;
+    // K > 1: minExtra[k - 1][v] = menor recurso k de v até o destino (null com K = 1).
+    final double[][] minExtra;
+    int reachableNodes = 0;
+
+    public TargetBounds(Graph g, int target) {
+        this.target = target;
+        Dijkstra back = new Dijkstra(g.reverse());
+
+        minCost = new double[g.n];
+        back.run(target, -1, 1, 0);
+        for (int v = 0; v < g.n; v++) {
+            minCost[v] = back.distance(v);
+            if (minCost[v] < Double.POSITIVE_INFINITY) reachableNodes++;
+        }
+
+        minResource = new double[g.n];
+        back.run(target, -1, 0, 1);
+        for (int v = 0; v < g.n; v++) minResource[v] = back.distance(v);
+
+        if (g.extraResource == null) {
+            minExtra = null;
+            return;
+        }
+        minExtra = new double[g.extraResource.length][g.n];
+        for (int k = 1; k <= minExtra.length; k++) {
+            back.runResource(target, -1, k);
+            for (int v = 0; v < g.n; v++) minExtra[k - 1][v] = back.distance(v);
+        }
+    }
+
+    @Override
+    public int target() {
+        return target;
+    }
+
+    @Override
+    public double cost(int v) {
+        return minCost[v];
+    }
+
+    @Override
+    public double resource(int v) {
+        return minResource[v];
+    }
+
+    @Override
+    public double resource(int k, int v) {
+        return k == 0 ? minResource[v] : minExtra[k - 1][v];
+    }
+
+    @Override
+    public boolean reaches(int v) {
+        return minResource[v] < Double.POSITIVE_INFINITY;
+    }
+
+    // v ainda pode chegar ao destino gastando no máximo 'budget' de recurso.
+    public boolean reachesWithin(int v, double budget) {
+        return minResource[v] <= budget;
+    }
+
+    // Quantos nós sobrevivem à poda para um limite R (os demais nunca estão num caminho viável).
+    public int usableNodes(double R) {
+        int count = 0;
+        for (double r : minResource) {
+            if (r <= R) count++;
+        }
+        return count;
+    }
+}
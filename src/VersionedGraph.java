@@ -0,0 +1,65 @@
+import java.util.*;
+
+// Versões imutáveis do grafo para atualizações ao vivo. Quem vai resolver pega current() e usa
+// aquele grafo até o fim, mesmo que outras versões sejam publicadas no meio do caminho (Graph.apply
+// nunca altera a versão anterior). Os últimos lotes ficam guardados para saber o que mudou entre
+// duas versões (changesSince), base da reotimização incremental do QueryService.
+public class VersionedGraph {
+    public static class Version {
+        public final long number;
+        public final Graph graph;
+        final GraphUpdate update;  // lote que gerou esta versão (null na inicial)
+        final boolean improving;   // o lote pode ter barateado algum caminho (GraphUpdate.canImprove)
+
+        Version(long number, Graph graph, GraphUpdate update, boolean improving) {
+            this.number = number;
+            this.graph = graph;
+            this.update = update;
+            this.improving = improving;
+        }
+    }
+
+    // Lotes guardados para changesSince; versões mais antigas obrigam a resolver do zero.
+    int historyLimit = 64;
+
+    private volatile Version current;
+    private final ArrayDeque<Version> history = new ArrayDeque<>();
+
+    public VersionedGraph(Graph g) {
+        // Transposto montado já aqui: as consultas de cada versão (TargetBounds) o usam em paralelo
+        g.build().reverse();
+        current = new Version(0, g, null, false);
+    }
+
+    public Version current() {
+        return current;
+    }
+
+    public Graph graph() {
+        return current.graph;
+    }
+
+    // Aplica o lote e publica a nova versão. Atualizações são serializadas; leitores não esperam.
+    public synchronized Version apply(GraphUpdate up) {
+        Version prev = current;
+        Graph next = prev.graph.apply(up);
+        // Graph.apply devolve o grafo sem caches: o transposto é montado antes de publicar a versão,
+        // e não pela primeira leva de consultas concorrentes nela
+        next.reverse();
+        Version v = new Version(prev.number + 1, next, up, up.canImprove(prev.graph));
+        history.addLast(v);
+        while (history.size() > historyLimit) history.removeFirst();
+        current = v;
+        return v;
+    }
+
+    // Versões publicadas depois de 'number', em ordem; null se o histórico não alcança mais.
+    public synchronized List<Version> changesSince(long number) {
+        List<Version> list = new ArrayList<>();
+        if (number >= current.number) return list;
+        for (Version v : history) {
+            if (v.number > number) list.add(v);
+        }
+        return list.size() == current.number - number ? list : null;
+    }
+}
@@ -0,0 +1,52 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+// Snapshot lido com verify = false (sem CRC) ainda recusa um CSR malformado com IOException,
+// em vez de deixar o erro aparecer depois como índice fora do vetor.
+// Uso: java -cp <classes> GraphSnapshotTest [instancia]
+public class GraphSnapshotTest {
+    public static void main(String[] args) throws Exception {
+        Instance inst = InstanceLoader.load(args.length > 0 ? args[0] : "instances/inst_media.txt");
+        Graph g = inst.graph.build();
+        Path file = Files.createTempFile("snapshot", ".pcmr");
+        try {
+            GraphSnapshot.write(inst, file.toString());
+            GraphSnapshot.read(file.toString(), false);
+
+            long offsets = GraphSnapshot.HEADER_SIZE;
+            long targets = offsets + 4L * (g.n + 1);
+            expectRejected(file, offsets, 7, "offsets[0] != 0");
+            expectRejected(file, offsets + 4, g.m + 1, "offsets decrescentes");
+            expectRejected(file, offsets + 4L * g.n, g.m - 1, "offsets[n] != m");
+            expectRejected(file, targets, g.n, "destino >= n");
+            expectRejected(file, targets + 4, -1, "destino negativo");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.println("OK");
+    }
+
+    // Troca o int em 'pos' por 'value', exige IOException na leitura sem CRC e restaura o original.
+    static void expectRejected(Path file, long pos, int value, String what) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ch.read(buf, pos);
+            int original = buf.getInt(0);
+            buf.clear();
+            ch.write(buf.putInt(0, value), pos);
+            try {
+                GraphSnapshot.read(file.toString(), false);
+                throw new AssertionError(what + ": snapshot corrompido foi aceito");
+            } catch (IOException expected) {
+                if (!expected.getMessage().startsWith("CSR inválido")) {
+                    throw new AssertionError(what + ": mensagem inesperada: " + expected.getMessage());
+                }
+            } finally {
+                buf.clear();
+                ch.write(buf.putInt(0, original), pos);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+// Leitor de texto: números com mais de 64 caracteres são aceitos (mesmo valor de Double.parseDouble)
+// e um token inválido é reportado com a linha em que aparece.
+// Uso: java -cp <classes> InstanceLoaderTest
+public class InstanceLoaderTest {
+    public static void main(String[] args) throws Exception {
+        String longCost = "2." + "0".repeat(100) + "1";
+        String longResource = "0".repeat(80) + "3.5" + "0".repeat(80) + "e-1";
+        Instance inst = load("3 2 0 2 100\n0 1 " + longCost + " " + longResource + "\n1 2 1 1\n");
+        Graph g = inst.graph.build();
+        int a = g.offsets[0];
+        if (g.cost[a] != Double.parseDouble(longCost) || g.resource[a] != Double.parseDouble(longResource)) {
+            throw new AssertionError("Token longo lido errado: " + g.cost[a] + ", " + g.resource[a]);
+        }
+
+        expectError("3 2\n0 2 100\n0 1 1 1\n1 x 1 1\n", "linha 4");
+        expectError("3 2 0 2 100\n0 1 1 1\n1 2 1\n", "linha 3");
+        expectError("3 2 0 2 100\n\n\n0 1 1 1\n1 2 1 1." + "5".repeat(200) + "e\n", "linha 5");
+
+        System.out.println("OK");
+    }
+
+    static Instance load(String text) throws IOException {
+        Path file = Files.createTempFile("instancia", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+            return InstanceLoader.load(file.toString());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static void expectError(String text, String where) {
+        try {
+            load(text);
+            throw new AssertionError("Arquivo inválido aceito: " + text.replace("\n", "\\n"));
+        } catch (IOException e) {
+            if (!e.getMessage().contains(where)) {
+                throw new AssertionError("Esperado '" + where + "' na mensagem: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+import java.util.*;
+
+// Consultas concorrentes (destinos diferentes) contra um grafo recém-criado, sem transposto nem
+// limites em cache: todas devem terminar sem erro e com o mesmo ótimo do label-setting sequencial,
+// também logo depois de um update (versão nova, caches vazios de novo).
+// Uso: java -cp <classes> QueryServiceConcurrencyTest [instancia]
+public class QueryServiceConcurrencyTest {
+    public static void main(String[] args) throws Exception {
+        Instance inst = InstanceLoader.load(args.length > 0 ? args[0] : "instances/inst_muito_grande.txt");
+        Graph base = inst.graph.build();
+        SplittableRandom rand = new SplittableRandom(11);
+        int threads = 4;
+        int rounds = 20;
+
+        for (int round = 0; round < rounds; round++) {
+            Graph fresh = copy(base);
+            List<QueryService.Query> batch = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                batch.add(new QueryService.Query(rand.nextInt(base.n), rand.nextInt(base.n), inst.R, 50));
+            }
+            try (QueryService service = new QueryService(fresh, threads, round)) {
+                service.exactLabelLimit = Integer.MAX_VALUE;
+                check(service, batch, fresh);
+
+                // Nova versão: caches do grafo vazios outra vez
+                GraphUpdate up = new GraphUpdate();
+                int u = rand.nextInt(base.n);
+                if (base.degree(u) > 0) {
+                    int a = base.offsets[u];
+                    up.change(u, base.targets[a], base.cost[a] * 2, base.resource[a]);
+                }
+                service.update(up);
+                check(service, batch, service.graphs.graph());
+            }
+        }
+        System.out.println("OK: " + rounds + " rodadas com " + threads + " threads");
+    }
+
+    static void check(QueryService service, List<QueryService.Query> batch, Graph g) throws Exception {
+        List<QueryService.QueryResult> results = new ArrayList<>();
+        service.solveAll(batch, results::add);
+        if (results.size() != batch.size()) throw new AssertionError("Faltaram resultados: " + results.size());
+        for (QueryService.QueryResult r : results) {
+            if (r.error != null) throw new AssertionError("Consulta " + describe(r.query) + " falhou", r.error);
+            QueryService.Query q = r.query;
+            Solution opt = new LabelSettingSolver(copy(g), q.source, q.target, q.R).solve();
+            boolean feasible = r.best != null && r.best.reachesTarget && r.best.resource <= q.R;
+            if (feasible != opt.reachesTarget
+                    || (feasible && Math.abs(r.best.cost - opt.cost) > 1e-6)) {
+                throw new AssertionError("Consulta " + describe(q) + ": " + (feasible ? r.best.cost : "inviável")
+                        + " != ótimo " + (opt.reachesTarget ? opt.cost : "inviável"));
+            }
+        }
+    }
+
+    static Graph copy(Graph g) {
+        return Graph.fromCsr(g.n, g.offsets.clone(), g.targets.clone(), g.cost.clone(), g.resource.clone());
+    }
+
+    static String describe(QueryService.Query q) {
+        return q.source + "->" + q.target;
+    }
+}
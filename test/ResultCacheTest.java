@@ -0,0 +1,61 @@
+import java.util.*;
+
+// Prova de otimalidade no ResultCache: um caminho de mesmo custo e recurso menor que substitui
+// (ou é absorvido por) uma entrada provada ótima não pode derrubar a prova.
+// Uso: java -cp <classes> ResultCacheTest
+public class ResultCacheTest {
+    public static void main(String[] args) {
+        // 0 -> 1 -> 3 e 0 -> 2 -> 3: mesmo custo (10), recursos 5 e 4
+        Graph g = new Graph(4);
+        g.addEdge(0, 1, 5, 3);
+        g.addEdge(1, 3, 5, 2);
+        g.addEdge(0, 2, 5, 2);
+        g.addEdge(2, 3, 5, 2);
+        g.build();
+        double R = 8;
+        Solution proven = path(g, R, 0, 1, 3);
+        Solution cheaper = path(g, R, 0, 2, 3);
+
+        // Provado primeiro, depois a heurística de mesmo custo que o domina
+        ResultCache cache = new ResultCache(1000);
+        cache.put(0, 3, proven, R);
+        cache.put(0, 3, cheaper, -1);
+        expectOptimal(cache, R, cheaper.resource, "substituição");
+
+        // Ordem inversa: a heurística já está lá e o ótimo provado chega depois (dominado)
+        cache = new ResultCache(1000);
+        cache.put(0, 3, cheaper, -1);
+        cache.put(0, 3, proven, R);
+        expectOptimal(cache, R, cheaper.resource, "dominado");
+
+        // Sem nenhuma entrada provada não há prova a herdar
+        cache = new ResultCache(1000);
+        cache.put(0, 3, proven, -1);
+        cache.put(0, 3, cheaper, -1);
+        ResultCache.Lookup l = cache.lookup(0, 3, R);
+        if (l == null || l.optimal) throw new AssertionError("Heurística isolada não pode sair como ótima");
+
+        System.out.println("OK");
+    }
+
+    static Solution path(Graph g, double R, int... nodes) {
+        List<Integer> list = new ArrayList<>();
+        for (int v : nodes) list.add(v);
+        Solution s = new Solution(list);
+        s.evaluate(g, R, 1000, nodes[nodes.length - 1]);
+        if (!s.reachesTarget) throw new AssertionError("Caminho de teste não chega ao destino");
+        return s;
+    }
+
+    static void expectOptimal(ResultCache cache, double R, double resource, String what) {
+        for (double budget : new double[] { R, resource }) {
+            ResultCache.Lookup l = cache.lookup(0, 3, budget);
+            if (l == null || !l.optimal) {
+                throw new AssertionError(what + ": prova de otimalidade perdida para R = " + budget);
+            }
+            if (l.entry.resource != resource || l.entry.cost != 10) {
+                throw new AssertionError(what + ": entrada errada (" + l.entry.cost + ", " + l.entry.resource + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.*;
+
+// Modo anytime (SimulatedAnnealing.solve) sem critério que garanta o fim: um alvo de qualidade
+// inatingível sozinho e rules == null devem rodar um ciclo de resfriamento e voltar, sem reaquecer.
+// Uso: java -cp <classes> SimulatedAnnealingStopTest [instancia]
+public class SimulatedAnnealingStopTest {
+    public static void main(String[] args) throws Exception {
+        Instance inst = InstanceLoader.load(args.length > 0 ? args[0] : "instances/inst_media.txt");
+
+        SimulatedAnnealing sa = annealing(inst);
+        Solution best = finishes("alvo inatingível", () -> sa.solve(new StoppingRules().targetFitness(-1), null));
+        if (sa.stopReason != StoppingRules.Reason.SCHEDULE || sa.restarts != 0) {
+            throw new AssertionError("Esperado um ciclo só: " + sa.stopReason + ", " + sa.restarts + " reaquecimentos");
+        }
+        if (!best.reachesTarget) throw new AssertionError("Sem solução depois do ciclo");
+
+        SimulatedAnnealing noRules = annealing(inst);
+        finishes("rules == null", () -> noRules.solve(null, null));
+        if (noRules.restarts != 0) throw new AssertionError("rules == null reaqueceu");
+
+        System.out.println("OK");
+    }
+
+    static SimulatedAnnealing annealing(Instance inst) {
+        SimulatedAnnealing sa = new SimulatedAnnealing(inst.graph, inst.source, inst.target, inst.R,
+                new SplittableRandom(1));
+        sa.extraLimits = inst.extraLimits;
+        sa.verbose = false;
+        sa.maxIter = 5000;
+        return sa;
+    }
+
+    // Roda 'run' numa thread e falha se não voltar em 30s (o bug era um laço sem fim).
+    static Solution finishes(String what, java.util.concurrent.Callable<Solution> run) throws Exception {
+        Solution[] out = new Solution[1];
+        Throwable[] error = new Throwable[1];
+        Thread t = new Thread(() -> {
+            try {
+                out[0] = run.call();
+            } catch (Throwable e) {
+                error[0] = e;
+            }
+        });
+        t.setDaemon(true);
+        t.start();
+        t.join(30_000);
+        if (t.isAlive()) throw new AssertionError(what + ": solve não terminou em 30s");
+        if (error[0] != null) throw new AssertionError(what + ": " + error[0], error[0]);
+        return out[0];
+    }
+}